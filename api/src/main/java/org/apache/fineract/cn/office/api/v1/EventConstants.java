@@ -25,6 +25,7 @@ public interface EventConstants {
   String OPERATION_HEADER = "operation";
 
   String INITIALIZE = "initialize";
+  String OPERATION_REPAIR_COUNTERS = "repair-counters";
 
   String OPERATION_POST_OFFICE = "post-office";
   String OPERATION_PUT_OFFICE = "put-office";
@@ -40,6 +41,7 @@ public interface EventConstants {
   String OPERATION_DELETE_CONTACT_DETAIL = "delete-contact-detail";
 
   String SELECTOR_INITIALIZE = OPERATION_HEADER + " = '" + INITIALIZE + "'";
+  String SELECTOR_REPAIR_COUNTERS = OPERATION_HEADER + " = '" + OPERATION_REPAIR_COUNTERS + "'";
 
   String SELECTOR_POST_OFFICE = OPERATION_HEADER + " = '" + OPERATION_POST_OFFICE + "'";
   String SELECTOR_PUT_OFFICE = OPERATION_HEADER + " = '" + OPERATION_PUT_OFFICE + "'";
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.api.v1.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Keeps the last response per key and revalidates it with its entity tag, so unchanged resources are not
+ * transferred again. Keys must tell tenants apart if the cache is shared between them. Cached bodies are handed
+ * out as they are and must not be modified.
+ */
+public class EntityTagCache<K, T> {
+
+  private final Map<K, ResponseEntity<T>> responses;
+
+  public EntityTagCache(final int maximumSize) {
+    super();
+    this.responses = new LinkedHashMap<K, ResponseEntity<T>>(16, 0.75F, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<K, ResponseEntity<T>> eldest) {
+        return this.size() > maximumSize;
+      }
+    };
+  }
+
+  /**
+   * @param conditionalFetch one of the {@link OrganizationManager} methods taking an entity tag, e.g.
+   *                         {@code organizationManager::findOfficeByIdentifier}
+   */
+  public T get(final K key, final BiFunction<K, String, ResponseEntity<T>> conditionalFetch) {
+    final ResponseEntity<T> cachedResponse;
+    synchronized (this.responses) {
+      cachedResponse = this.responses.get(key);
+    }
+
+    final ResponseEntity<T> response;
+    try {
+      response = conditionalFetch.apply(key, cachedResponse != null ? cachedResponse.getHeaders().getETag() : null);
+    } catch (final NotModifiedException ex) {
+      if (cachedResponse == null) {
+        throw ex;
+      }
+      return cachedResponse.getBody();
+    } catch (final NotFoundException ex) {
+      this.evict(key);
+      throw ex;
+    }
+
+    synchronized (this.responses) {
+      if (response.getHeaders().getETag() != null) {
+        this.responses.put(key, response);
+      } else {
+        this.responses.remove(key);
+      }
+    }
+    return response.getBody();
+  }
+
+  public void evict(final K key) {
+    synchronized (this.responses) {
+      this.responses.remove(key);
+    }
+  }
+}
@@ -25,16 +25,20 @@ import org.apache.fineract.cn.office.api.v1.domain.EmployeePage;
 import org.apache.fineract.cn.office.api.v1.domain.ExternalReference;
 import org.apache.fineract.cn.office.api.v1.domain.Office;
 import org.apache.fineract.cn.office.api.v1.domain.OfficePage;
+import org.apache.fineract.cn.office.api.v1.domain.OfficeTree;
 import java.util.List;
 import javax.validation.Valid;
 import org.apache.fineract.cn.api.annotation.ThrowsException;
 import org.apache.fineract.cn.api.annotation.ThrowsExceptions;
 import org.apache.fineract.cn.api.util.CustomFeignClientsConfiguration;
 import org.springframework.cloud.netflix.feign.FeignClient;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -51,7 +55,8 @@ public interface OrganizationManager {
   )
   @ThrowsExceptions({
       @ThrowsException(status = HttpStatus.NOT_FOUND, exception = NotFoundException.class),
-      @ThrowsException(status = HttpStatus.CONFLICT, exception = AlreadyExistsException.class)
+      @ThrowsException(status = HttpStatus.CONFLICT, exception = AlreadyExistsException.class),
+      @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = BadRequestException.class)
   })
   void createOffice(@RequestBody final Office office);
 
@@ -67,6 +72,60 @@ public interface OrganizationManager {
                           @RequestParam(value = "sortColumn", required = false) final String sortColumn,
                           @RequestParam(value = "sortDirection", required = false) final String sortDirection);
 
+  @RequestMapping(
+      value = "/offices",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.ALL_VALUE
+  )
+  OfficePage fetchOffices(@RequestParam(value = "term", required = false) final String term,
+                          @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
+                          @RequestParam(value = "size", required = false) final Integer size,
+                          @RequestParam(value = "sortColumn", required = false) final String sortColumn,
+                          @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+                          @RequestParam(value = "withTotals", required = false) final Boolean withTotals);
+
+  @RequestMapping(
+      value = "/offices",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.ALL_VALUE
+  )
+  @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = BadRequestException.class)
+  OfficePage fetchOffices(@RequestParam(value = "term", required = false) final String term,
+                          @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
+                          @RequestParam(value = "size", required = false) final Integer size,
+                          @RequestParam(value = "sortColumn", required = false) final String sortColumn,
+                          @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+                          @RequestParam(value = "withTotals", required = false) final Boolean withTotals,
+                          @RequestParam(value = "expand", required = false) final String expand);
+
+  @RequestMapping(
+      value = "/offices",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.ALL_VALUE
+  )
+  @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = BadRequestException.class)
+  OfficePage fetchOfficesAfter(@RequestParam(value = "term", required = false) final String term,
+                               @RequestParam(value = "cursor") final String cursor,
+                               @RequestParam(value = "size", required = false) final Integer size);
+
+  @RequestMapping(
+      value = "/offices",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.ALL_VALUE
+  )
+  @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = BadRequestException.class)
+  OfficePage fetchOfficesByAddress(@RequestParam(value = "country") final String countryCode,
+                                   @RequestParam(value = "city", required = false) final String city,
+                                   @RequestParam(value = "region", required = false) final String region,
+                                   @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
+                                   @RequestParam(value = "size", required = false) final Integer size,
+                                   @RequestParam(value = "sortColumn", required = false) final String sortColumn,
+                                   @RequestParam(value = "sortDirection", required = false) final String sortDirection);
+
   @RequestMapping(
       value = "/offices/{identifier}",
       method = RequestMethod.GET,
@@ -76,6 +135,38 @@ public interface OrganizationManager {
   @ThrowsException(status = HttpStatus.NOT_FOUND, exception = NotFoundException.class)
   Office findOfficeByIdentifier(@PathVariable("identifier") final String identifier);
 
+  @RequestMapping(
+      value = "/offices/{identifier}",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.ALL_VALUE
+  )
+  @ThrowsExceptions({
+      @ThrowsException(status = HttpStatus.NOT_FOUND, exception = NotFoundException.class),
+      @ThrowsException(status = HttpStatus.NOT_MODIFIED, exception = NotModifiedException.class)
+  })
+  ResponseEntity<Office> findOfficeByIdentifier(@PathVariable("identifier") final String identifier,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String entityTag);
+
+  @RequestMapping(
+      value = "/offices/batch-get",
+      method = RequestMethod.POST,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = BadRequestException.class)
+  List<Office> findOfficesByIdentifiers(@RequestBody final List<String> identifiers);
+
+  @RequestMapping(
+      value = "/offices/batch-get",
+      method = RequestMethod.POST,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = BadRequestException.class)
+  List<Office> findOfficesByIdentifiers(@RequestBody final List<String> identifiers,
+                                       @RequestParam(value = "expand", required = false) final String expand);
+
   @RequestMapping(
       value = "/offices/{identifier}",
       method = RequestMethod.PUT,
@@ -96,7 +187,8 @@ public interface OrganizationManager {
   )
   @ThrowsExceptions({
           @ThrowsException(status = HttpStatus.NOT_FOUND, exception = NotFoundException.class),
-          @ThrowsException(status = HttpStatus.CONFLICT, exception = AlreadyExistsException.class)
+          @ThrowsException(status = HttpStatus.CONFLICT, exception = AlreadyExistsException.class),
+          @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = BadRequestException.class)
   })
   void addBranch(@PathVariable("identifier") final String identifier, @RequestBody final Office office);
 
@@ -113,6 +205,91 @@ public interface OrganizationManager {
                          @RequestParam(value = "sortColumn", required = false) final String sortColumn,
                          @RequestParam(value = "sortDirection", required = false) final String sortDirection);
 
+  @RequestMapping(
+      value = "/offices/{identifier}/branches",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  @ThrowsException(status = HttpStatus.NOT_FOUND, exception = NotFoundException.class)
+  OfficePage getBranches(@PathVariable("identifier") final String identifier,
+                         @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
+                         @RequestParam(value = "size", required = false) final Integer size,
+                         @RequestParam(value = "sortColumn", required = false) final String sortColumn,
+                         @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+                         @RequestParam(value = "withTotals", required = false) final Boolean withTotals);
+
+  @RequestMapping(
+      value = "/offices/{identifier}/branches",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  @ThrowsExceptions({
+      @ThrowsException(status = HttpStatus.NOT_FOUND, exception = NotFoundException.class),
+      @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = BadRequestException.class)
+  })
+  OfficePage getBranches(@PathVariable("identifier") final String identifier,
+                         @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
+                         @RequestParam(value = "size", required = false) final Integer size,
+                         @RequestParam(value = "sortColumn", required = false) final String sortColumn,
+                         @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+                         @RequestParam(value = "withTotals", required = false) final Boolean withTotals,
+                         @RequestParam(value = "expand", required = false) final String expand);
+
+  @RequestMapping(
+      value = "/offices/{identifier}/branches",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  @ThrowsExceptions({
+      @ThrowsException(status = HttpStatus.NOT_FOUND, exception = NotFoundException.class),
+      @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = BadRequestException.class)
+  })
+  OfficePage getBranchesAfter(@PathVariable("identifier") final String identifier,
+                              @RequestParam(value = "cursor") final String cursor,
+                              @RequestParam(value = "size", required = false) final Integer size);
+
+  @RequestMapping(
+      value = "/offices/{identifier}/descendants",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  @ThrowsException(status = HttpStatus.NOT_FOUND, exception = NotFoundException.class)
+  OfficePage getDescendants(@PathVariable("identifier") final String identifier,
+                            @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
+                            @RequestParam(value = "size", required = false) final Integer size,
+                            @RequestParam(value = "sortColumn", required = false) final String sortColumn,
+                            @RequestParam(value = "sortDirection", required = false) final String sortDirection);
+
+  @RequestMapping(
+      value = "/offices/{identifier}/ancestors",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  @ThrowsException(status = HttpStatus.NOT_FOUND, exception = NotFoundException.class)
+  List<Office> getAncestors(@PathVariable("identifier") final String identifier);
+
+  @RequestMapping(
+      value = "/offices/{identifier}/tree",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  @ThrowsException(status = HttpStatus.NOT_FOUND, exception = NotFoundException.class)
+  OfficeTree getOfficeTree(@PathVariable("identifier") final String identifier);
+
+  @RequestMapping(
+      value = "/tree",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  List<OfficeTree> getOfficeTrees();
+
   @RequestMapping(
       value = "/offices/{identifier}",
       method = RequestMethod.DELETE,
@@ -139,6 +316,19 @@ public interface OrganizationManager {
   )
   Address getAddressOfOffice(@PathVariable("identifier") final String identifier);
 
+  @RequestMapping(
+      value = "/offices/{identifier}/address",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.ALL_VALUE
+  )
+  @ThrowsExceptions({
+      @ThrowsException(status = HttpStatus.NOT_FOUND, exception = NotFoundException.class),
+      @ThrowsException(status = HttpStatus.NOT_MODIFIED, exception = NotModifiedException.class)
+  })
+  ResponseEntity<Address> getAddressOfOffice(@PathVariable("identifier") final String identifier,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String entityTag);
+
   @RequestMapping(
       value = "/offices/{identifier}/address",
       method = RequestMethod.DELETE,
@@ -171,6 +361,65 @@ public interface OrganizationManager {
                               @RequestParam(value = "sortColumn", required = false) final String sortColumn,
                               @RequestParam(value = "sortDirection", required = false) final String sortDirection);
 
+  @RequestMapping(
+      value = "/employees",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.ALL_VALUE
+  )
+  @ThrowsException(status = HttpStatus.NOT_FOUND, exception = NotFoundException.class)
+  EmployeePage fetchEmployees(@RequestParam(value = "term", required = false) final String term,
+                              @RequestParam(value = "office", required = false) final String officeIdentifier,
+                              @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
+                              @RequestParam(value = "size", required = false) final Integer size,
+                              @RequestParam(value = "sortColumn", required = false) final String sortColumn,
+                              @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+                              @RequestParam(value = "withTotals", required = false) final Boolean withTotals);
+
+  @RequestMapping(
+      value = "/employees",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.ALL_VALUE
+  )
+  @ThrowsExceptions({
+      @ThrowsException(status = HttpStatus.NOT_FOUND, exception = NotFoundException.class),
+      @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = BadRequestException.class)
+  })
+  EmployeePage fetchEmployees(@RequestParam(value = "term", required = false) final String term,
+                              @RequestParam(value = "office", required = false) final String officeIdentifier,
+                              @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
+                              @RequestParam(value = "size", required = false) final Integer size,
+                              @RequestParam(value = "sortColumn", required = false) final String sortColumn,
+                              @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+                              @RequestParam(value = "withTotals", required = false) final Boolean withTotals,
+                              @RequestParam(value = "expand", required = false) final String expand);
+
+  @RequestMapping(
+      value = "/employees",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.ALL_VALUE
+  )
+  @ThrowsExceptions({
+      @ThrowsException(status = HttpStatus.NOT_FOUND, exception = NotFoundException.class),
+      @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = BadRequestException.class)
+  })
+  EmployeePage fetchEmployeesAfter(@RequestParam(value = "term", required = false) final String term,
+                                   @RequestParam(value = "office", required = false) final String officeIdentifier,
+                                   @RequestParam(value = "cursor") final String cursor,
+                                   @RequestParam(value = "size", required = false) final Integer size);
+
+  @RequestMapping(
+      value = "/employees",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.ALL_VALUE
+  )
+  EmployeePage findEmployeesByContact(@RequestParam(value = "contact") final String contact,
+                                      @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
+                                      @RequestParam(value = "size", required = false) final Integer size);
+
   @RequestMapping(
       value = "/employees/{useridentifier}",
       method = RequestMethod.GET,
@@ -180,6 +429,38 @@ public interface OrganizationManager {
   @ThrowsException(status = HttpStatus.NOT_FOUND, exception = NotFoundException.class)
   Employee findEmployee(@PathVariable("useridentifier") final String identifier);
 
+  @RequestMapping(
+      value = "/employees/{useridentifier}",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.ALL_VALUE
+  )
+  @ThrowsExceptions({
+      @ThrowsException(status = HttpStatus.NOT_FOUND, exception = NotFoundException.class),
+      @ThrowsException(status = HttpStatus.NOT_MODIFIED, exception = NotModifiedException.class)
+  })
+  ResponseEntity<Employee> findEmployee(@PathVariable("useridentifier") final String identifier,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String entityTag);
+
+  @RequestMapping(
+      value = "/employees/batch-get",
+      method = RequestMethod.POST,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = BadRequestException.class)
+  List<Employee> findEmployeesByIdentifiers(@RequestBody final List<String> identifiers);
+
+  @RequestMapping(
+      value = "/employees/batch-get",
+      method = RequestMethod.POST,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  @ThrowsException(status = HttpStatus.BAD_REQUEST, exception = BadRequestException.class)
+  List<Employee> findEmployeesByIdentifiers(@RequestBody final List<String> identifiers,
+                                           @RequestParam(value = "expand", required = false) final String expand);
+
   @RequestMapping(
       value = "/employees/{useridentifier}",
       method = RequestMethod.PUT,
@@ -219,6 +500,19 @@ public interface OrganizationManager {
   @ThrowsException(status = HttpStatus.NOT_FOUND, exception = NotFoundException.class)
   List<ContactDetail> fetchContactDetails(@PathVariable("useridentifier") final String identifier);
 
+  @RequestMapping(
+      value = "/employees/{useridentifier}/contacts",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.ALL_VALUE
+  )
+  @ThrowsExceptions({
+      @ThrowsException(status = HttpStatus.NOT_FOUND, exception = NotFoundException.class),
+      @ThrowsException(status = HttpStatus.NOT_MODIFIED, exception = NotModifiedException.class)
+  })
+  ResponseEntity<List<ContactDetail>> fetchContactDetails(@PathVariable("useridentifier") final String identifier,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String entityTag);
+
   @RequestMapping(
       value = "/employees/{useridentifier}/contacts",
       method = RequestMethod.DELETE,
@@ -28,6 +28,8 @@ public class EmployeePage {
   private List<Employee> employees;
   private Integer totalPages;
   private Long totalElements;
+  private String nextCursor;
+  private Boolean hasNextPage;
 
   public EmployeePage() {
     super();
@@ -56,4 +58,20 @@ public class EmployeePage {
   public void setTotalElements(final Long totalElements) {
     this.totalElements = totalElements;
   }
+
+  public String getNextCursor() {
+    return this.nextCursor;
+  }
+
+  public void setNextCursor(final String nextCursor) {
+    this.nextCursor = nextCursor;
+  }
+
+  public Boolean getHasNextPage() {
+    return this.hasNextPage;
+  }
+
+  public void setHasNextPage(final Boolean hasNextPage) {
+    this.hasNextPage = hasNextPage;
+  }
 }
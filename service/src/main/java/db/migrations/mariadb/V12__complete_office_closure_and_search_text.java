@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package db.migrations.mariadb;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.fineract.cn.office.internal.repository.SearchText;
+import org.apache.fineract.cn.office.internal.repository.TrigramIndex;
+import org.flywaydb.core.api.migration.jdbc.JdbcMigration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * Completes the backfills of V5, V6 and V7 once, within the migration transaction. V5 only seeds the self paths of
+ * existing offices, and V6 and V7 can only fold case, so deeper paths are derived from the parent relation and
+ * search names and trigrams are derived with the same Java code that maintains them on every change.
+ */
+@SuppressWarnings("unused")
+public class V12__complete_office_closure_and_search_text implements JdbcMigration {
+
+  private static final int BATCH_SIZE = 1000;
+
+  public V12__complete_office_closure_and_search_text() {
+    super();
+  }
+
+  @Override
+  public void migrate(final Connection connection) throws Exception {
+    final JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+    this.completeOfficeClosure(jdbcTemplate);
+    this.reindexOffices(jdbcTemplate);
+    this.reindexEmployees(jdbcTemplate);
+  }
+
+  /**
+   * Derives one level of paths after the other until a level stays empty.
+   */
+  private void completeOfficeClosure(final JdbcTemplate jdbcTemplate) {
+    int depth = 0;
+    while (jdbcTemplate.update(
+        "INSERT INTO horus_office_closure (ancestor_id, descendant_id, depth) " +
+            "SELECT c.ancestor_id, o.id, c.depth + 1 FROM horus_office_closure c " +
+            "JOIN horus_offices o ON o.parent_office_id = c.descendant_id WHERE c.depth = ?", depth) > 0) {
+      depth++;
+    }
+  }
+
+  private void reindexOffices(final JdbcTemplate jdbcTemplate) {
+    long lastOfficeId = 0L;
+    List<IndexedText> offices;
+    do {
+      offices = jdbcTemplate.query(
+          "SELECT id, identifier, a_name FROM horus_offices WHERE id > ? ORDER BY id LIMIT " + BATCH_SIZE,
+          (resultSet, rowNum) -> new IndexedText(resultSet.getLong("id"),
+              TrigramIndex.officeText(resultSet.getString("identifier"), resultSet.getString("a_name")), null),
+          lastOfficeId);
+      this.replaceTrigrams(jdbcTemplate, TrigramIndex.OFFICE, offices);
+      lastOfficeId = offices.isEmpty() ? lastOfficeId : offices.get(offices.size() - 1).id;
+    } while (offices.size() == BATCH_SIZE);
+  }
+
+  private void reindexEmployees(final JdbcTemplate jdbcTemplate) {
+    long lastEmployeeId = 0L;
+    List<IndexedText> employees;
+    do {
+      employees = jdbcTemplate.query(
+          "SELECT id, identifier, given_name, middle_name, surname FROM horus_employees WHERE id > ? " +
+              "ORDER BY id LIMIT " + BATCH_SIZE,
+          (resultSet, rowNum) -> {
+            final String searchName = SearchText.employeeName(resultSet.getString("given_name"),
+                resultSet.getString("middle_name"), resultSet.getString("surname"));
+            return new IndexedText(resultSet.getLong("id"),
+                TrigramIndex.employeeText(resultSet.getString("identifier"), searchName), searchName);
+          },
+          lastEmployeeId);
+      final List<Object[]> searchNames = new ArrayList<>(employees.size());
+      employees.forEach(employee -> searchNames.add(new Object[]{employee.searchName, employee.id}));
+      jdbcTemplate.batchUpdate("UPDATE horus_employees SET search_name = ? WHERE id = ?", searchNames);
+      this.replaceTrigrams(jdbcTemplate, TrigramIndex.EMPLOYEE, employees);
+      lastEmployeeId = employees.isEmpty() ? lastEmployeeId : employees.get(employees.size() - 1).id;
+    } while (employees.size() == BATCH_SIZE);
+  }
+
+  private void replaceTrigrams(final JdbcTemplate jdbcTemplate, final String ownerType,
+                               final List<IndexedText> indexedTexts) {
+    final List<Object[]> owners = new ArrayList<>(indexedTexts.size());
+    final List<Object[]> trigrams = new ArrayList<>();
+    indexedTexts.forEach(indexedText -> {
+      owners.add(new Object[]{ownerType, indexedText.id});
+      TrigramIndex.trigrams(indexedText.text)
+          .forEach(trigram -> trigrams.add(new Object[]{ownerType, indexedText.id, trigram}));
+    });
+    jdbcTemplate.batchUpdate("DELETE FROM horus_search_trigrams WHERE owner_type = ? AND owner_id = ?", owners);
+    jdbcTemplate.batchUpdate("INSERT INTO horus_search_trigrams (owner_type, owner_id, trigram) VALUES (?, ?, ?)",
+        trigrams);
+  }
+
+  private static final class IndexedText {
+
+    private final long id;
+    private final String text;
+    private final String searchName;
+
+    private IndexedText(final long id, final String text, final String searchName) {
+      super();
+      this.id = id;
+      this.text = text;
+      this.searchName = searchName;
+    }
+  }
+}
@@ -26,4 +26,9 @@ public interface ServiceConstants {
   String JSON_SERIALIZER_NAME = "office-json-serializer";
 
   String SHEUT_THE_UNKNOWN_USER = "sheut";
+
+  int MAX_BATCH_GET_SIZE = 200;
+
+  // POST /offices/batch-get would otherwise be taken for adding a branch to an office of that identifier
+  String RESERVED_OFFICE_IDENTIFIER = "batch-get";
 }
@@ -20,7 +20,6 @@ package org.apache.fineract.cn.office.internal.command.handler;
 
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
 import org.apache.fineract.cn.api.util.UserContextHolder;
 import org.apache.fineract.cn.command.annotation.Aggregate;
 import org.apache.fineract.cn.command.annotation.CommandHandler;
@@ -42,6 +41,11 @@ import org.apache.fineract.cn.office.internal.repository.EmployeeEntity;
 import org.apache.fineract.cn.office.internal.repository.EmployeeRepository;
 import org.apache.fineract.cn.office.internal.repository.OfficeEntity;
 import org.apache.fineract.cn.office.internal.repository.OfficeRepository;
+import org.apache.fineract.cn.office.internal.repository.SearchText;
+import org.apache.fineract.cn.office.internal.repository.TrigramIndex;
+import org.apache.fineract.cn.office.internal.service.IdentifierCache;
+import org.apache.fineract.cn.office.internal.service.OfficeCache;
+import org.apache.fineract.cn.office.internal.service.OfficeSnapshotHolder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -54,15 +58,27 @@ public class EmployeeAggregate {
   private final EmployeeRepository employeeRepository;
   private final ContactDetailRepository contactDetailRepository;
   private final OfficeRepository officeRepository;
+  private final OfficeSnapshotHolder officeSnapshotHolder;
+  private final TrigramIndex trigramIndex;
+  private final IdentifierCache identifierCache;
+  private final OfficeCache officeCache;
 
   @Autowired
   public EmployeeAggregate(final EmployeeRepository employeeRepository,
                            final ContactDetailRepository contactDetailRepository,
-                           final OfficeRepository officeRepository) {
+                           final OfficeRepository officeRepository,
+                           final OfficeSnapshotHolder officeSnapshotHolder,
+                           final TrigramIndex trigramIndex,
+                           final IdentifierCache identifierCache,
+                           final OfficeCache officeCache) {
     super();
     this.employeeRepository = employeeRepository;
     this.contactDetailRepository = contactDetailRepository;
     this.officeRepository = officeRepository;
+    this.officeSnapshotHolder = officeSnapshotHolder;
+    this.trigramIndex = trigramIndex;
+    this.identifierCache = identifierCache;
+    this.officeCache = officeCache;
   }
 
   @Transactional
@@ -78,17 +94,26 @@ public class EmployeeAggregate {
 
     final EmployeeEntity employeeEntity = EmployeeMapper.map(employee);
 
+    final Long assignedOfficeId;
     if (employee.getAssignedOffice() != null) {
-      final Optional<OfficeEntity> officeEntity = this.officeRepository.findByIdentifier(employee.getAssignedOffice());
-      if (officeEntity.isPresent()) {
-        employeeEntity.setAssignedOffice(officeEntity.get());
-      } else {
-        throw ServiceException.notFound("Assigned office {0} not found.", employee.getAssignedOffice());
-      }
+      assignedOfficeId = this.identifierCache.findOfficeId(employee.getAssignedOffice())
+          .orElseThrow(() -> ServiceException.notFound("Assigned office {0} not found.", employee.getAssignedOffice()));
+      employeeEntity.setAssignedOffice(this.officeRepository.getOne(assignedOfficeId));
+    } else {
+      assignedOfficeId = null;
     }
+    employeeEntity.setSearchName(SearchText.employeeName(employeeEntity));
     employeeEntity.setCreatedBy(UserContextHolder.checkedGetUser());
     employeeEntity.setCreatedOn(Utils.utcNow());
+    this.identifierCache.addEmployee(employeeEntity.getIdentifier());
     final EmployeeEntity savedEmployeeEntity = this.employeeRepository.save(employeeEntity);
+    this.trigramIndex.indexEmployee(savedEmployeeEntity);
+
+    if (assignedOfficeId != null) {
+      this.officeRepository.adjustEmployeeCount(assignedOfficeId, 1);
+      this.officeSnapshotHolder.invalidateAfterCommit();
+      this.officeCache.evictAfterCommit(assignedOfficeId);
+    }
 
     if (employee.getContactDetails() != null) {
       this.saveContactDetail(savedEmployeeEntity, employee.getContactDetails());
@@ -102,10 +127,19 @@ public class EmployeeAggregate {
   @EventEmitter(selectorName = EventConstants.OPERATION_HEADER, selectorValue = EventConstants.OPERATION_DELETE_EMPLOYEE)
   public String deleteEmployee(final DeleteEmployeeCommand deleteEmployeeCommand) {
 
-    final EmployeeEntity employeeEntityToDelete = this.employeeRepository.findByIdentifier(deleteEmployeeCommand.code());
+    final EmployeeEntity employeeEntityToDelete =
+        this.employeeRepository.findWithAssignedOfficeByIdentifier(deleteEmployeeCommand.code());
     if (employeeEntityToDelete != null) {
       this.deleteContactDetails(employeeEntityToDelete);
+      this.trigramIndex.removeEmployee(employeeEntityToDelete.getId());
       this.employeeRepository.delete(employeeEntityToDelete);
+      this.identifierCache.evictEmployeeAfterCommit(employeeEntityToDelete.getId());
+
+      if (employeeEntityToDelete.getAssignedOffice() != null) {
+        this.officeRepository.adjustEmployeeCount(employeeEntityToDelete.getAssignedOffice().getId(), -1);
+        this.officeSnapshotHolder.invalidateAfterCommit();
+        this.officeCache.evictAfterCommit(employeeEntityToDelete.getAssignedOffice().getId());
+      }
     }
     return deleteEmployeeCommand.code();
   }
@@ -116,7 +150,7 @@ public class EmployeeAggregate {
   public String updateEmployee(final UpdateEmployeeCommand updateEmployeeCommand) {
     final Employee employee = updateEmployeeCommand.employee();
 
-    final EmployeeEntity employeeEntity = this.employeeRepository.findByIdentifier(employee.getIdentifier());
+    final EmployeeEntity employeeEntity = this.employeeRepository.findWithAssignedOfficeByIdentifier(employee.getIdentifier());
 
     if (employee.getGivenName() != null) {
       employeeEntity.setGivenName(employee.getGivenName());
@@ -130,21 +164,29 @@ public class EmployeeAggregate {
       employeeEntity.setSurname(employee.getSurname());
     }
 
+    employeeEntity.setSearchName(SearchText.employeeName(employeeEntity));
+
     final OfficeEntity assignedOffice = employeeEntity.getAssignedOffice();
     final String currentIdentifier = assignedOffice != null ? assignedOffice.getIdentifier() : null;
 
     if (!Objects.equals(employee.getAssignedOffice(), currentIdentifier)) {
-      final Optional<OfficeEntity> officeEntity = this.officeRepository.findByIdentifier(employee.getAssignedOffice());
-      if (officeEntity.isPresent()) {
-        employeeEntity.setAssignedOffice(officeEntity.get());
-      } else {
-        throw ServiceException.notFound("Assigned office {0} not found.", employee.getAssignedOffice());
+      final Long officeId = this.identifierCache.findOfficeId(employee.getAssignedOffice())
+          .orElseThrow(() -> ServiceException.notFound("Assigned office {0} not found.", employee.getAssignedOffice()));
+      employeeEntity.setAssignedOffice(this.officeRepository.getOne(officeId));
+      this.officeSnapshotHolder.invalidateAfterCommit();
+      if (assignedOffice != null) {
+        this.officeRepository.adjustEmployeeCount(assignedOffice.getId(), -1);
+        this.officeCache.evictAfterCommit(assignedOffice.getId());
       }
+      this.officeRepository.adjustEmployeeCount(officeId, 1);
+      this.officeCache.evictAfterCommit(officeId);
     }
 
     employeeEntity.setLastModifiedBy(UserContextHolder.checkedGetUser());
     employeeEntity.setLastModifiedOn(Utils.utcNow());
     this.employeeRepository.save(employeeEntity);
+    this.employeeRepository.incrementVersion(employeeEntity.getId());
+    this.trigramIndex.indexEmployee(employeeEntity);
 
     return updateEmployeeCommand.employee().getIdentifier();
   }
@@ -171,6 +213,7 @@ public class EmployeeAggregate {
     employeeEntity.setLastModifiedBy(UserContextHolder.checkedGetUser());
     employeeEntity.setLastModifiedOn(Utils.utcNow());
     this.employeeRepository.save(employeeEntity);
+    this.employeeRepository.incrementVersion(employeeEntity.getId());
 
     return setContactDetailsCommand.identifier();
   }
@@ -190,6 +233,7 @@ public class EmployeeAggregate {
       employeeEntity.setLastModifiedBy(UserContextHolder.checkedGetUser());
       employeeEntity.setLastModifiedOn(Utils.utcNow());
       this.employeeRepository.save(employeeEntity);
+      this.employeeRepository.incrementVersion(employeeEntity.getId());
     }
 
     return deleteContactDetailCommand.identifier();
@@ -34,6 +34,7 @@ import org.apache.fineract.cn.office.internal.command.AddExternalReferenceComman
 import org.apache.fineract.cn.office.internal.command.CreateOfficeCommand;
 import org.apache.fineract.cn.office.internal.command.DeleteAddressOfOfficeCommand;
 import org.apache.fineract.cn.office.internal.command.DeleteOfficeCommand;
+import org.apache.fineract.cn.office.internal.command.RepairOfficeCountersCommand;
 import org.apache.fineract.cn.office.internal.command.SetAddressForOfficeCommand;
 import org.apache.fineract.cn.office.internal.command.UpdateOfficeCommand;
 import org.apache.fineract.cn.office.internal.mapper.AddressMapper;
@@ -42,8 +43,13 @@ import org.apache.fineract.cn.office.internal.repository.AddressEntity;
 import org.apache.fineract.cn.office.internal.repository.AddressRepository;
 import org.apache.fineract.cn.office.internal.repository.ExternalReferenceEntity;
 import org.apache.fineract.cn.office.internal.repository.ExternalReferenceRepository;
+import org.apache.fineract.cn.office.internal.repository.OfficeClosureRepository;
 import org.apache.fineract.cn.office.internal.repository.OfficeEntity;
 import org.apache.fineract.cn.office.internal.repository.OfficeRepository;
+import org.apache.fineract.cn.office.internal.repository.TrigramIndex;
+import org.apache.fineract.cn.office.internal.service.IdentifierCache;
+import org.apache.fineract.cn.office.internal.service.OfficeCache;
+import org.apache.fineract.cn.office.internal.service.OfficeSnapshotHolder;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -59,17 +65,32 @@ public class OfficeAggregate {
   private final OfficeRepository officeRepository;
   private final AddressRepository addressRepository;
   private final ExternalReferenceRepository externalReferenceRepository;
+  private final OfficeClosureRepository officeClosureRepository;
+  private final OfficeSnapshotHolder officeSnapshotHolder;
+  private final TrigramIndex trigramIndex;
+  private final IdentifierCache identifierCache;
+  private final OfficeCache officeCache;
 
   @Autowired
   public OfficeAggregate(@Qualifier(ServiceConstants.SERVICE_LOGGER_NAME) final Logger logger,
                          final OfficeRepository officeRepository,
                          final AddressRepository addressRepository,
-                         final ExternalReferenceRepository externalReferenceRepository) {
+                         final ExternalReferenceRepository externalReferenceRepository,
+                         final OfficeClosureRepository officeClosureRepository,
+                         final OfficeSnapshotHolder officeSnapshotHolder,
+                         final TrigramIndex trigramIndex,
+                         final IdentifierCache identifierCache,
+                         final OfficeCache officeCache) {
     super();
     this.logger = logger;
     this.officeRepository = officeRepository;
     this.addressRepository = addressRepository;
     this.externalReferenceRepository = externalReferenceRepository;
+    this.officeClosureRepository = officeClosureRepository;
+    this.officeSnapshotHolder = officeSnapshotHolder;
+    this.trigramIndex = trigramIndex;
+    this.identifierCache = identifierCache;
+    this.officeCache = officeCache;
   }
 
   @Transactional
@@ -98,10 +119,14 @@ public class OfficeAggregate {
         officeEntity.setDescription(office.getDescription());
       }
 
-      officeEntity.setCreatedBy(UserContextHolder.checkedGetUser());
-      officeEntity.setCreatedOn(Utils.utcNow());
+      officeEntity.setLastModifiedBy(UserContextHolder.checkedGetUser());
+      officeEntity.setLastModifiedOn(Utils.utcNow());
 
       this.officeRepository.save(officeEntity);
+      this.officeRepository.incrementVersion(officeEntity.getId());
+      this.trigramIndex.indexOffice(officeEntity);
+      this.officeSnapshotHolder.invalidateAfterCommit();
+      this.officeCache.evictAfterCommit(officeEntity.getId());
 
       if (office.getAddress() != null) {
         this.setAddress(new SetAddressForOfficeCommand(office.getIdentifier(), office.getAddress()));
@@ -137,7 +162,23 @@ public class OfficeAggregate {
       final Optional<AddressEntity> optionalAddressEntity = this.addressRepository.findByOffice(officeEntityToDelete);
       optionalAddressEntity.ifPresent(this.addressRepository::delete);
 
+      this.officeClosureRepository.deletePaths(officeEntityToDelete.getId());
+      this.trigramIndex.removeOffice(officeEntityToDelete.getId());
       this.officeRepository.delete(officeEntityToDelete);
+      this.officeSnapshotHolder.invalidateAfterCommit();
+      this.identifierCache.evictOfficeAfterCommit(officeEntityToDelete.getId());
+      this.officeCache.evictAfterCommit(officeEntityToDelete.getId());
+      this.officeCache.evictAfterCommit(officeEntityToDelete.getParentOfficeId());
+
+      if (officeEntityToDelete.getParentOfficeId() != null) {
+        final OfficeEntity parentOfficeEntity = this.officeRepository.findOne(officeEntityToDelete.getParentOfficeId());
+        if (parentOfficeEntity != null) {
+          parentOfficeEntity.setLastModifiedBy(UserContextHolder.checkedGetUser());
+          parentOfficeEntity.setLastModifiedOn(Utils.utcNow());
+          this.officeRepository.save(parentOfficeEntity);
+        }
+        this.officeRepository.adjustChildCount(officeEntityToDelete.getParentOfficeId(), -1);
+      }
 
       this.externalReferenceRepository.deleteByOfficeIdentifier(deleteOfficeCommand.identifier());
     }
@@ -166,6 +207,9 @@ public class OfficeAggregate {
       officeEntity.setLastModifiedBy(UserContextHolder.checkedGetUser());
       officeEntity.setLastModifiedOn(Utils.utcNow());
       this.officeRepository.save(officeEntity);
+      this.officeRepository.incrementVersion(officeEntity.getId());
+      this.officeSnapshotHolder.invalidateAfterCommit();
+      this.officeCache.evictAfterCommit(officeEntity.getId());
 
       return setAddressForOfficeCommand.identifier();
     } else {
@@ -188,6 +232,9 @@ public class OfficeAggregate {
           officeEntity.setLastModifiedBy(UserContextHolder.checkedGetUser());
           officeEntity.setLastModifiedOn(Utils.utcNow());
           this.officeRepository.save(officeEntity);
+          this.officeRepository.incrementVersion(officeEntity.getId());
+          this.officeSnapshotHolder.invalidateAfterCommit();
+          this.officeCache.evictAfterCommit(officeEntity.getId());
           return deleteAddressOfOfficeCommand.identifier();
         }
       } else {
@@ -219,10 +266,27 @@ public class OfficeAggregate {
     externalReferenceEntity.setState(externalReference.getState());
 
     this.externalReferenceRepository.save(externalReferenceEntity);
+    this.officeRepository.refreshActiveReferenceCount(officeIdentifier, ExternalReference.State.ACTIVE.name());
+    this.officeSnapshotHolder.invalidateAfterCommit();
+    this.identifierCache.findOfficeId(officeIdentifier).ifPresent(this.officeCache::evictAfterCommit);
 
     return officeIdentifier;
   }
 
+  @Transactional
+  @CommandHandler
+  @EventEmitter(selectorName = EventConstants.OPERATION_HEADER, selectorValue = EventConstants.OPERATION_REPAIR_COUNTERS)
+  public String repairCounters(final RepairOfficeCountersCommand repairOfficeCountersCommand) {
+    final int repairedCounters = this.officeRepository.repairChildCounts()
+        + this.officeRepository.repairEmployeeCounts()
+        + this.officeRepository.repairActiveReferenceCounts(ExternalReference.State.ACTIVE.name());
+    this.officeSnapshotHolder.invalidateAfterCommit();
+    this.officeCache.clearAfterCommit();
+    this.logger.info("Repaired {} office counters.", repairedCounters);
+
+    return EventConstants.OPERATION_REPAIR_COUNTERS;
+  }
+
   private void createOffice(final Office office, final Office parentOffice) {
     if (this.officeRepository.existsByIdentifier(office.getIdentifier())) {
       this.logger.info("Office {} already exists.", office.getIdentifier());
@@ -247,7 +311,17 @@ public class OfficeAggregate {
     officeEntity.setCreatedBy(modificationUser);
     officeEntity.setCreatedOn(modificationDate);
 
+    this.identifierCache.addOffice(officeEntity.getIdentifier());
     final OfficeEntity savedOfficeEntity = this.officeRepository.save(officeEntity);
+    this.officeSnapshotHolder.invalidateAfterCommit();
+
+    if (savedOfficeEntity.getParentOfficeId() != null) {
+      this.officeRepository.adjustChildCount(savedOfficeEntity.getParentOfficeId(), 1);
+      this.officeCache.evictAfterCommit(savedOfficeEntity.getParentOfficeId());
+    }
+    this.officeClosureRepository.insertPaths(savedOfficeEntity.getId(), savedOfficeEntity.getParentOfficeId());
+    this.officeRepository.assignTreePath(savedOfficeEntity.getId());
+    this.trigramIndex.indexOffice(savedOfficeEntity);
 
     if (office.getAddress() != null) {
       final AddressEntity addressEntity = AddressMapper.map(office.getAddress());
@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 @Configuration
@@ -43,6 +44,9 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
         "org.apache.fineract.cn.office.internal.repository"
     }
 )
+@Import({
+    ReplicaConfiguration.class
+})
 public class OfficeServiceConfiguration {
 
   public OfficeServiceConfiguration() {
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.config;
+
+import com.jolbox.bonecp.BoneCPDataSource;
+import javax.sql.DataSource;
+import org.apache.fineract.cn.office.ServiceConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Routes read-only transactions to a replica, see {@link ReplicaRoutingDataSource}. Only active if
+ * office.replica.enabled is set, connection settings not given for the replica are taken from the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "office.replica", name = "enabled", havingValue = "true")
+public class ReplicaConfiguration {
+
+  public ReplicaConfiguration() {
+    super();
+  }
+
+  @Bean
+  public static BeanPostProcessor replicaRoutingPostProcessor(final Environment environment) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessBeforeInitialization(final Object bean, final String beanName) throws BeansException {
+        return bean;
+      }
+
+      @Override
+      public Object postProcessAfterInitialization(final Object bean, final String beanName) throws BeansException {
+        if (!(bean instanceof DataSource) || !"dataSource".equals(beanName)) {
+          return bean;
+        }
+        final Logger logger = LoggerFactory.getLogger(ServiceConstants.SERVICE_LOGGER_NAME);
+        logger.info("Routing read-only transactions of data source {} to replica.", beanName);
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(logger, (DataSource) bean,
+            ReplicaConfiguration.replicaDataSource(environment),
+            environment.getProperty("office.replica.maxLag", Long.class, 5L) * 1000L,
+            environment.getProperty("office.replica.readYourWritesWindow", Long.class, 10000L),
+            environment.getProperty("office.replica.lagProbeInterval", Long.class, 5000L)));
+      }
+    };
+  }
+
+  private static DataSource replicaDataSource(final Environment environment) {
+    final BoneCPDataSource replicaDataSource = new BoneCPDataSource();
+    replicaDataSource.setDriverClass(environment.getProperty("mariadb.driverClass"));
+    replicaDataSource.setJdbcUrl("jdbc:mariadb://"
+        + environment.getProperty("office.replica.host", environment.getProperty("mariadb.host")) + ":"
+        + environment.getProperty("office.replica.port", environment.getProperty("mariadb.port")) + "/");
+    replicaDataSource.setUsername(environment.getProperty("office.replica.user", environment.getProperty("mariadb.user")));
+    replicaDataSource.setPassword(
+        environment.getProperty("office.replica.password", environment.getProperty("mariadb.password")));
+    replicaDataSource.setIdleMaxAgeInMinutes(environment.getProperty("bonecp.idleMaxAgeInMinutes", Long.class, 240L));
+    replicaDataSource.setIdleConnectionTestPeriodInMinutes(
+        environment.getProperty("bonecp.idleConnectionTestPeriodInMinutes", Long.class, 60L));
+    replicaDataSource.setMaxConnectionsPerPartition(
+        environment.getProperty("bonecp.maxConnectionsPerPartition", Integer.class, 10));
+    replicaDataSource.setMinConnectionsPerPartition(
+        environment.getProperty("bonecp.minConnectionsPerPartition", Integer.class, 1));
+    replicaDataSource.setPartitionCount(environment.getProperty("bonecp.partitionCount", Integer.class, 2));
+    replicaDataSource.setAcquireIncrement(environment.getProperty("bonecp.acquireIncrement", Integer.class, 5));
+    replicaDataSource.setStatementsCacheSize(environment.getProperty("bonecp.statementsCacheSize", Integer.class, 100));
+    return replicaDataSource;
+  }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import org.apache.fineract.cn.api.context.UserContext;
+import org.apache.fineract.cn.api.util.UserContextHolder;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.slf4j.Logger;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hands out replica connections to read-only transactions and primary connections to everything else. Reads fall
+ * back to the primary while the replica is unavailable or lags too far behind, and while the current user has
+ * written recently, so callers always see the effect of their own commands.
+ *
+ * Must be wrapped into a lazy connection proxy, the read-only flag of a transaction is only known once it began.
+ */
+public class ReplicaRoutingDataSource extends DelegatingDataSource {
+
+  private final Logger logger;
+  private final DataSource replicaDataSource;
+  private final long maxLag;
+  private final long readYourWritesWindow;
+  private final long lagProbeInterval;
+  private final Map<String, String> catalogs;
+  private final Map<String, Long> recentWrites;
+  private volatile long lagProbedOn;
+  private volatile long observedLag;
+  private volatile boolean replicaCurrent;
+
+  public ReplicaRoutingDataSource(final Logger logger,
+                                  final DataSource primaryDataSource,
+                                  final DataSource replicaDataSource,
+                                  final long maxLag,
+                                  final long readYourWritesWindow,
+                                  final long lagProbeInterval) {
+    super(primaryDataSource);
+    this.logger = logger;
+    this.replicaDataSource = replicaDataSource;
+    this.maxLag = maxLag;
+    this.readYourWritesWindow = readYourWritesWindow;
+    this.lagProbeInterval = lagProbeInterval;
+    this.catalogs = new ConcurrentHashMap<>();
+    this.recentWrites = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      this.recordWriteOnCommit();
+      return super.getConnection();
+    }
+
+    if (this.wroteRecently() || !this.isReplicaCurrent()) {
+      return super.getConnection();
+    }
+
+    try {
+      return this.getReplicaConnection();
+    } catch (final SQLException ex) {
+      this.logger.warn("Replica not available, reading from primary.", ex);
+      this.replicaCurrent = false;
+      this.lagProbedOn = System.currentTimeMillis();
+      return super.getConnection();
+    }
+  }
+
+  private Connection getReplicaConnection() throws SQLException {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    String catalog = this.catalogs.get(tenantIdentifier);
+    if (catalog == null) {
+      try (final Connection primaryConnection = super.getConnection()) {
+        catalog = primaryConnection.getCatalog();
+      }
+      this.catalogs.put(tenantIdentifier, catalog);
+    }
+
+    final Connection replicaConnection = this.replicaDataSource.getConnection();
+    try {
+      replicaConnection.setCatalog(catalog);
+      return replicaConnection;
+    } catch (final SQLException ex) {
+      replicaConnection.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * Only a committed transaction that was not read-only counts as a write. Connections taken outside of
+   * transactions merely read, and rolled back transactions left nothing the replica has to catch up with.
+   */
+  private void recordWriteOnCommit() {
+    final Optional<String> writerKey = ReplicaRoutingDataSource.writerKey();
+    if (!writerKey.isPresent()
+        || !TransactionSynchronizationManager.isActualTransactionActive()
+        || !TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+      @Override
+      public void afterCommit() {
+        ReplicaRoutingDataSource.this.recentWrites.put(writerKey.get(), System.currentTimeMillis());
+      }
+    });
+  }
+
+  private boolean wroteRecently() {
+    final Optional<String> writerKey = ReplicaRoutingDataSource.writerKey();
+    if (!writerKey.isPresent()) {
+      return false;
+    }
+    final Long writtenOn = this.recentWrites.get(writerKey.get());
+    if (writtenOn == null) {
+      return false;
+    }
+    // a write is only guaranteed to be on the replica once the replica caught up with it
+    final long window = Math.max(this.readYourWritesWindow, this.observedLag + this.lagProbeInterval);
+    if (System.currentTimeMillis() - writtenOn < window) {
+      return true;
+    }
+    this.recentWrites.remove(writerKey.get(), writtenOn);
+    return false;
+  }
+
+  private boolean isReplicaCurrent() {
+    if (System.currentTimeMillis() - this.lagProbedOn > this.lagProbeInterval) {
+      synchronized (this) {
+        if (System.currentTimeMillis() - this.lagProbedOn > this.lagProbeInterval) {
+          this.replicaCurrent = this.probeLag();
+          this.lagProbedOn = System.currentTimeMillis();
+        }
+      }
+    }
+    return this.replicaCurrent;
+  }
+
+  private boolean probeLag() {
+    try (
+        final Connection connection = this.replicaDataSource.getConnection();
+        final Statement statement = connection.createStatement();
+        final ResultSet resultSet = statement.executeQuery("SHOW SLAVE STATUS")
+    ) {
+      if (!resultSet.next()) {
+        this.observedLag = 0L;
+        return true;
+      }
+      final long secondsBehindMaster = resultSet.getLong("Seconds_Behind_Master");
+      if (resultSet.wasNull()) {
+        this.logger.warn("Replica is not replicating, reading from primary.");
+        return false;
+      }
+      this.observedLag = secondsBehindMaster * 1000L;
+      if (this.observedLag > this.maxLag) {
+        this.logger.warn("Replica lags {} seconds behind, reading from primary.", secondsBehindMaster);
+        return false;
+      }
+      return true;
+    } catch (final SQLException ex) {
+      this.logger.warn("Could not probe replica lag, reading from primary.", ex);
+      return false;
+    }
+  }
+
+  private static Optional<String> writerKey() {
+    final Optional<String> tenantIdentifier = TenantContextHolder.identifier();
+    final Optional<String> user = UserContextHolder.getUserContext().map(UserContext::getUser);
+    if (!tenantIdentifier.isPresent() || !user.isPresent()) {
+      return Optional.empty();
+    }
+    return Optional.of(tenantIdentifier.get() + ":" + user.get());
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.fineract.cn.office.internal.mapper;
 
 import org.apache.fineract.cn.office.api.v1.domain.ContactDetail;
 import org.apache.fineract.cn.office.internal.repository.ContactDetailEntity;
+import org.apache.fineract.cn.office.internal.repository.SearchText;
 
 public class ContactDetailMapper {
 
@@ -32,6 +33,7 @@ public class ContactDetailMapper {
     contactDetailEntity.setType(contactDetail.getType());
     contactDetailEntity.setGroup(contactDetail.getGroup());
     contactDetailEntity.setValue(contactDetail.getValue());
+    contactDetailEntity.setNormalizedValue(SearchText.contactValue(contactDetail.getValue()));
     contactDetailEntity.setPreferenceLevel(contactDetail.getPreferenceLevel());
     return contactDetailEntity;
   }
@@ -20,6 +20,7 @@ package org.apache.fineract.cn.office.internal.mapper;
 
 import org.apache.fineract.cn.office.api.v1.domain.Employee;
 import org.apache.fineract.cn.office.internal.repository.EmployeeEntity;
+import org.apache.fineract.cn.office.internal.repository.EmployeeProjection;
 
 public class EmployeeMapper {
 
@@ -46,4 +47,14 @@ public class EmployeeMapper {
       employee.setAssignedOffice(employeeEntity.getAssignedOffice().getIdentifier());
     return employee;
   }
+
+  public static Employee map(final EmployeeProjection employeeProjection) {
+    final Employee employee = new Employee();
+    employee.setIdentifier(employeeProjection.getIdentifier());
+    employee.setGivenName(employeeProjection.getGivenName());
+    employee.setMiddleName(employeeProjection.getMiddleName());
+    employee.setSurname(employeeProjection.getSurname());
+    employee.setAssignedOffice(employeeProjection.getAssignedOffice());
+    return employee;
+  }
 }
@@ -20,6 +20,7 @@ package org.apache.fineract.cn.office.internal.mapper;
 
 import org.apache.fineract.cn.office.api.v1.domain.Office;
 import org.apache.fineract.cn.office.internal.repository.OfficeEntity;
+import org.apache.fineract.cn.office.internal.repository.OfficeProjection;
 
 public final class OfficeMapper {
 
@@ -42,4 +43,13 @@ public final class OfficeMapper {
     office.setDescription(officeEntity.getDescription());
     return office;
   }
+
+  public static Office map(final OfficeProjection officeProjection) {
+    final Office office = new Office();
+    office.setIdentifier(officeProjection.getIdentifier());
+    office.setParentIdentifier(officeProjection.getParentIdentifier());
+    office.setName(officeProjection.getName());
+    office.setDescription(officeProjection.getDescription());
+    return office;
+  }
 }
@@ -51,6 +51,8 @@ public class AddressEntity {
   @OneToOne(fetch = FetchType.LAZY, optional = false)
   @JoinColumn(name = "office_id")
   private OfficeEntity office;
+  @Column(name = "office_id", insertable = false, updatable = false)
+  private Long officeId;
 
   public AddressEntity() {
     super();
@@ -119,4 +121,8 @@ public class AddressEntity {
   public void setOffice(OfficeEntity office) {
     this.office = office;
   }
+
+  public Long getOfficeId() {
+    return officeId;
+  }
 }
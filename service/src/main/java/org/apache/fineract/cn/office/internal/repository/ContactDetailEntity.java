@@ -39,12 +39,16 @@ public class ContactDetailEntity {
   @OneToOne(fetch = FetchType.LAZY, optional = true)
   @JoinColumn(name = "employee_id")
   private EmployeeEntity employee;
+  @Column(name = "employee_id", insertable = false, updatable = false)
+  private Long employeeId;
   @Column(name = "a_type")
   private String type;
   @Column(name = "a_group")
   private String group;
   @Column(name = "a_value")
   private String value;
+  @Column(name = "normalized_value")
+  private String normalizedValue;
   @Column(name = "preference_level")
   private Integer preferenceLevel;
 
@@ -68,6 +72,10 @@ public class ContactDetailEntity {
     this.employee = employee;
   }
 
+  public Long getEmployeeId() {
+    return this.employeeId;
+  }
+
   public String getType() {
     return this.type;
   }
@@ -92,6 +100,14 @@ public class ContactDetailEntity {
     this.value = value;
   }
 
+  public String getNormalizedValue() {
+    return this.normalizedValue;
+  }
+
+  public void setNormalizedValue(final String normalizedValue) {
+    this.normalizedValue = normalizedValue;
+  }
+
   public Integer getPreferenceLevel() {
     return this.preferenceLevel;
   }
@@ -19,12 +19,18 @@
 package org.apache.fineract.cn.office.internal.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ContactDetailRepository extends JpaRepository<ContactDetailEntity, Long> {
 
   List<ContactDetailEntity> findByEmployeeOrderByPreferenceLevelAsc(final EmployeeEntity employeeEntity);
+
+  @Query("SELECT c FROM ContactDetailEntity c WHERE c.employeeId IN :employeeIds ORDER BY c.preferenceLevel ASC")
+  List<ContactDetailEntity> findByEmployeeIdsOrderByPreferenceLevelAsc(@Param("employeeIds") final Collection<Long> employeeIds);
 }
@@ -47,6 +47,8 @@ public class EmployeeEntity {
   private String middleName;
   @Column(name = "surname")
   private String surname;
+  @Column(name = "search_name")
+  private String searchName;
   @OneToOne(fetch = FetchType.LAZY, optional = true)
   @JoinColumn(name = "assigned_office_id")
   private OfficeEntity assignedOffice;
@@ -60,6 +62,8 @@ public class EmployeeEntity {
   @Column(name = "last_modified_on")
   @Temporal(TemporalType.TIMESTAMP)
   private Date lastModifiedOn;
+  @Column(name = "version", insertable = false, updatable = false)
+  private Long version;
 
   public EmployeeEntity() {
     super();
@@ -105,6 +109,14 @@ public class EmployeeEntity {
     this.surname = surname;
   }
 
+  public String getSearchName() {
+    return searchName;
+  }
+
+  public void setSearchName(String searchName) {
+    this.searchName = searchName;
+  }
+
   public OfficeEntity getAssignedOffice() {
     return assignedOffice;
   }
@@ -145,6 +157,10 @@ public class EmployeeEntity {
     this.lastModifiedOn = lastModifiedOn;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
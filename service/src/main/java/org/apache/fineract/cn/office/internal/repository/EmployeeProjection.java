@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.repository;
+
+/**
+ * Read-only view of an employee including the identifier of the assigned office, created by JPQL constructor
+ * expressions so list and lookup queries do not need to hydrate managed {@link EmployeeEntity} instances.
+ */
+public class EmployeeProjection {
+
+  private final Long id;
+  private final String identifier;
+  private final String givenName;
+  private final String middleName;
+  private final String surname;
+  private final String assignedOffice;
+  private final Long version;
+
+  public EmployeeProjection(final Long id,
+                            final String identifier,
+                            final String givenName,
+                            final String middleName,
+                            final String surname,
+                            final String assignedOffice,
+                            final Long version) {
+    super();
+    this.id = id;
+    this.identifier = identifier;
+    this.givenName = givenName;
+    this.middleName = middleName;
+    this.surname = surname;
+    this.assignedOffice = assignedOffice;
+    this.version = version;
+  }
+
+  public Long getId() {
+    return this.id;
+  }
+
+  public String getIdentifier() {
+    return this.identifier;
+  }
+
+  public String getGivenName() {
+    return this.givenName;
+  }
+
+  public String getMiddleName() {
+    return this.middleName;
+  }
+
+  public String getSurname() {
+    return this.surname;
+  }
+
+  public String getAssignedOffice() {
+    return this.assignedOffice;
+  }
+
+  /**
+   * Read together with the rest of the row, so the tag always matches the state the employee is rendered from.
+   */
+  public String getEntityTag() {
+    return new EntityVersion(this.id, this.version).toEntityTag();
+  }
+}
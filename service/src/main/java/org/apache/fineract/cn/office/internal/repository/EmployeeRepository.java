@@ -20,23 +20,183 @@ package org.apache.fineract.cn.office.internal.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface EmployeeRepository extends JpaRepository<EmployeeEntity, Long> {
 
+  String EMPLOYEE_PROJECTION =
+      " new org.apache.fineract.cn.office.internal.repository.EmployeeProjection(" +
+          "e.id, e.identifier, e.givenName, e.middleName, e.surname, o.identifier, e.version) " +
+          "FROM EmployeeEntity e LEFT JOIN e.assignedOffice o";
+
+  String SELECT_EMPLOYEE_PROJECTION = "SELECT" + EMPLOYEE_PROJECTION;
+
+  String AFTER_EMPLOYEE_KEY =
+      " (e.identifier > :identifier OR (e.identifier = :identifier AND e.id > :id))";
+
+  String ORDER_BY_EMPLOYEE_KEY = " ORDER BY e.identifier ASC, e.id ASC";
+
+  String EMPLOYEE_MATCHES_TERM =
+      " (e.identifier LIKE CONCAT('%', :term, '%') OR e.searchName LIKE CONCAT('%', :term, '%'))";
+
+  String FROM_EMPLOYEE_TRIGRAMS = ", SearchTrigramEntity t1, SearchTrigramEntity t2";
+
+  String FROM_EMPLOYEE_TRIGRAM = ", SearchTrigramEntity t";
+
+  String EMPLOYEE_OWNS_TRIGRAMS =
+      " t1.ownerType = '" + TrigramIndex.EMPLOYEE + "' AND t1.trigram = :leadingTrigram AND t1.ownerId = e.id" +
+          " AND t2.ownerType = '" + TrigramIndex.EMPLOYEE + "' AND t2.trigram = :trailingTrigram AND t2.ownerId = e.id";
+
+  String EMPLOYEE_OWNS_TRIGRAM_PREFIX =
+      " t.ownerType = '" + TrigramIndex.EMPLOYEE + "' AND t.trigram LIKE CONCAT(:term, '%') AND t.ownerId = e.id";
+
+  String EMPLOYEE_OWNS_CONTACT = " c.normalizedValue = :contact AND c.employeeId = e.id";
+
   EmployeeEntity findByIdentifier(final String identifier);
 
-  @Query("SELECT CASE WHEN COUNT(e) > 0 THEN 'true' ELSE 'false' END FROM EmployeeEntity e WHERE e.identifier = :identifier")
-  Boolean existsByIdentifier(@Param("identifier") final String identifier);
+  /**
+   * Loads the assigned office in the same query, for callers that read more than its id.
+   */
+  @Query("SELECT e FROM EmployeeEntity e LEFT JOIN FETCH e.assignedOffice WHERE e.identifier = :identifier")
+  EmployeeEntity findWithAssignedOfficeByIdentifier(@Param("identifier") final String identifier);
+
+  @Query("SELECT e.id FROM EmployeeEntity e WHERE e.identifier = :identifier")
+  Optional<Long> findIdByIdentifier(@Param("identifier") final String identifier);
+
+  @Query("SELECT new org.apache.fineract.cn.office.internal.repository.EntityIdentifier(e.id, e.identifier) " +
+      "FROM EmployeeEntity e")
+  List<EntityIdentifier> findAllIdentifiers();
+
+  @Query("SELECT new org.apache.fineract.cn.office.internal.repository.EntityIdentifier(e.id, e.identifier) " +
+      "FROM EmployeeEntity e WHERE e.createdOn >= :createdOn")
+  List<EntityIdentifier> findIdentifiersCreatedSince(@Param("createdOn") final Date createdOn);
+
+  @Query("SELECT new org.apache.fineract.cn.office.internal.repository.EntityVersion(e.id, e.version) " +
+      "FROM EmployeeEntity e WHERE e.identifier = :identifier")
+  Optional<EntityVersion> findVersionByIdentifier(@Param("identifier") final String identifier);
+
+  @Query(SELECT_EMPLOYEE_PROJECTION + " WHERE e.identifier = :identifier")
+  Optional<EmployeeProjection> findProjectionByIdentifier(@Param("identifier") final String identifier);
 
-  Page<EmployeeEntity> findByAssignedOffice(final OfficeEntity assignedOffice, final Pageable pageable);
+  @Query(SELECT_EMPLOYEE_PROJECTION + " WHERE e.identifier IN :identifiers")
+  List<EmployeeProjection> findProjectionsByIdentifiers(@Param("identifiers") final Collection<String> identifiers);
 
-  Page<EmployeeEntity> findByIdentifierContaining(String term, Pageable pageRequest);
+  @Query(
+      value = SELECT_EMPLOYEE_PROJECTION,
+      countQuery = "SELECT COUNT(e) FROM EmployeeEntity e"
+  )
+  Page<EmployeeProjection> findAllProjections(final Pageable pageable);
+
+  @Query(
+      value = SELECT_EMPLOYEE_PROJECTION + " WHERE o.id = :officeId",
+      countQuery = "SELECT COUNT(e) FROM EmployeeEntity e WHERE e.assignedOffice.id = :officeId"
+  )
+  Page<EmployeeProjection> findProjectionsByAssignedOfficeId(@Param("officeId") final Long officeId,
+                                                             final Pageable pageable);
+
+  @Query(
+      value = SELECT_EMPLOYEE_PROJECTION + " WHERE" + EMPLOYEE_MATCHES_TERM,
+      countQuery = "SELECT COUNT(e) FROM EmployeeEntity e WHERE" + EMPLOYEE_MATCHES_TERM
+  )
+  Page<EmployeeProjection> findProjectionsByTerm(@Param("term") final String term, final Pageable pageable);
+
+  @Query(
+      value = "SELECT DISTINCT" + EMPLOYEE_PROJECTION + FROM_EMPLOYEE_TRIGRAM +
+          " WHERE" + EMPLOYEE_OWNS_TRIGRAM_PREFIX + " AND" + EMPLOYEE_MATCHES_TERM,
+      countQuery = "SELECT COUNT(DISTINCT e) FROM EmployeeEntity e" + FROM_EMPLOYEE_TRIGRAM +
+          " WHERE" + EMPLOYEE_OWNS_TRIGRAM_PREFIX + " AND" + EMPLOYEE_MATCHES_TERM
+  )
+  Page<EmployeeProjection> findProjectionsByTrigramPrefix(@Param("term") final String term, final Pageable pageable);
+
+  @Query("SELECT DISTINCT" + EMPLOYEE_PROJECTION + FROM_EMPLOYEE_TRIGRAM + " WHERE" + EMPLOYEE_OWNS_TRIGRAM_PREFIX +
+      " AND" + EMPLOYEE_MATCHES_TERM)
+  Slice<EmployeeProjection> findProjectionSliceByTrigramPrefix(@Param("term") final String term,
+                                                               final Pageable pageable);
+
+  @Query("SELECT DISTINCT" + EMPLOYEE_PROJECTION + FROM_EMPLOYEE_TRIGRAM + " WHERE" + EMPLOYEE_OWNS_TRIGRAM_PREFIX +
+      " AND" + EMPLOYEE_MATCHES_TERM + " AND" + AFTER_EMPLOYEE_KEY + ORDER_BY_EMPLOYEE_KEY)
+  Slice<EmployeeProjection> findProjectionsByTrigramPrefixAfter(@Param("term") final String term,
+                                                                @Param("identifier") final String identifier,
+                                                                @Param("id") final Long id,
+                                                                final Pageable pageable);
+
+  @Query(
+      value = SELECT_EMPLOYEE_PROJECTION + FROM_EMPLOYEE_TRIGRAMS +
+          " WHERE" + EMPLOYEE_OWNS_TRIGRAMS + " AND" + EMPLOYEE_MATCHES_TERM,
+      countQuery = "SELECT COUNT(e) FROM EmployeeEntity e" + FROM_EMPLOYEE_TRIGRAMS +
+          " WHERE" + EMPLOYEE_OWNS_TRIGRAMS + " AND" + EMPLOYEE_MATCHES_TERM
+  )
+  Page<EmployeeProjection> findProjectionsByTrigrams(@Param("term") final String term,
+                                                     @Param("leadingTrigram") final String leadingTrigram,
+                                                     @Param("trailingTrigram") final String trailingTrigram,
+                                                     final Pageable pageable);
+
+  @Query(SELECT_EMPLOYEE_PROJECTION + FROM_EMPLOYEE_TRIGRAMS + " WHERE" + EMPLOYEE_OWNS_TRIGRAMS + " AND" +
+      EMPLOYEE_MATCHES_TERM)
+  Slice<EmployeeProjection> findProjectionSliceByTrigrams(@Param("term") final String term,
+                                                          @Param("leadingTrigram") final String leadingTrigram,
+                                                          @Param("trailingTrigram") final String trailingTrigram,
+                                                          final Pageable pageable);
+
+  @Query(SELECT_EMPLOYEE_PROJECTION + FROM_EMPLOYEE_TRIGRAMS + " WHERE" + EMPLOYEE_OWNS_TRIGRAMS + " AND" +
+      EMPLOYEE_MATCHES_TERM + " AND" + AFTER_EMPLOYEE_KEY + ORDER_BY_EMPLOYEE_KEY)
+  Slice<EmployeeProjection> findProjectionsByTrigramsAfter(@Param("term") final String term,
+                                                           @Param("leadingTrigram") final String leadingTrigram,
+                                                           @Param("trailingTrigram") final String trailingTrigram,
+                                                           @Param("identifier") final String identifier,
+                                                           @Param("id") final Long id,
+                                                           final Pageable pageable);
+
+  @Query(
+      value = "SELECT DISTINCT" + EMPLOYEE_PROJECTION + ", ContactDetailEntity c WHERE" + EMPLOYEE_OWNS_CONTACT,
+      countQuery = "SELECT COUNT(DISTINCT e) FROM EmployeeEntity e, ContactDetailEntity c WHERE" + EMPLOYEE_OWNS_CONTACT
+  )
+  Page<EmployeeProjection> findProjectionsByContact(@Param("contact") final String normalizedContact,
+                                                    final Pageable pageable);
+
+  @Query(SELECT_EMPLOYEE_PROJECTION)
+  Slice<EmployeeProjection> findAllProjectionSlice(final Pageable pageable);
+
+  @Query(SELECT_EMPLOYEE_PROJECTION + " WHERE o.id = :officeId")
+  Slice<EmployeeProjection> findProjectionSliceByAssignedOfficeId(@Param("officeId") final Long officeId,
+                                                                  final Pageable pageable);
+
+  @Query(SELECT_EMPLOYEE_PROJECTION + " WHERE" + EMPLOYEE_MATCHES_TERM)
+  Slice<EmployeeProjection> findProjectionSliceByTerm(@Param("term") final String term, final Pageable pageable);
+
+  @Query(SELECT_EMPLOYEE_PROJECTION + " WHERE" + AFTER_EMPLOYEE_KEY + ORDER_BY_EMPLOYEE_KEY)
+  Slice<EmployeeProjection> findAllProjectionsAfter(@Param("identifier") final String identifier,
+                                                    @Param("id") final Long id,
+                                                    final Pageable pageable);
+
+  @Query(SELECT_EMPLOYEE_PROJECTION + " WHERE o.id = :officeId AND" + AFTER_EMPLOYEE_KEY + ORDER_BY_EMPLOYEE_KEY)
+  Slice<EmployeeProjection> findProjectionsByAssignedOfficeIdAfter(@Param("officeId") final Long officeId,
+                                                                   @Param("identifier") final String identifier,
+                                                                   @Param("id") final Long id,
+                                                                   final Pageable pageable);
+
+  @Query(SELECT_EMPLOYEE_PROJECTION + " WHERE" + EMPLOYEE_MATCHES_TERM + " AND" +
+      AFTER_EMPLOYEE_KEY + ORDER_BY_EMPLOYEE_KEY)
+  Slice<EmployeeProjection> findProjectionsByTermAfter(@Param("term") final String term,
+                                                       @Param("identifier") final String identifier,
+                                                       @Param("id") final Long id,
+                                                       final Pageable pageable);
+
+  @Query("SELECT CASE WHEN COUNT(e) > 0 THEN 'true' ELSE 'false' END FROM EmployeeEntity e WHERE e.identifier = :identifier")
+  Boolean existsByIdentifier(@Param("identifier") final String identifier);
 
-  @Query("SELECT CASE WHEN COUNT(e) > 0 THEN 'true' ELSE 'false' END FROM EmployeeEntity e WHERE e.assignedOffice = :office")
-  Boolean existsByAssignedOffice(@Param("office") final OfficeEntity assignedOffice);
+  @Modifying
+  @Query("UPDATE EmployeeEntity e SET e.version = e.version + 1 WHERE e.id = :employeeId")
+  int incrementVersion(@Param("employeeId") final Long employeeId);
 }
@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.repository;
+
+/**
+ * Id and version of an office or employee row. The version is raised with every change to the representation of
+ * the row, including its address or contact details.
+ */
+public class EntityVersion {
+
+  private final Long id;
+  private final Long version;
+
+  public EntityVersion(final Long id, final Long version) {
+    super();
+    this.id = id;
+    this.version = version;
+  }
+
+  public Long getId() {
+    return this.id;
+  }
+
+  public Long getVersion() {
+    return this.version;
+  }
+
+  /**
+   * The id is part of the tag, so a resource deleted and created again under the same identifier never matches.
+   */
+  public String toEntityTag() {
+    return this.id + "-" + this.version;
+  }
+}
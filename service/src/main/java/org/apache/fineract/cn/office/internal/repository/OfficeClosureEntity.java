@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.repository;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * One path of the office hierarchy. Every office has a path to itself with depth zero and one path to each of its
+ * ancestors, the depth being the number of levels between them.
+ */
+@Entity
+@Table(name = "horus_office_closure")
+public class OfficeClosureEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id")
+  private Long id;
+  @Column(name = "ancestor_id", nullable = false)
+  private Long ancestorId;
+  @Column(name = "descendant_id", nullable = false)
+  private Long descendantId;
+  @Column(name = "depth", nullable = false)
+  private Integer depth;
+
+  public OfficeClosureEntity() {
+    super();
+  }
+
+  public Long getId() {
+    return this.id;
+  }
+
+  public void setId(final Long id) {
+    this.id = id;
+  }
+
+  public Long getAncestorId() {
+    return this.ancestorId;
+  }
+
+  public void setAncestorId(final Long ancestorId) {
+    this.ancestorId = ancestorId;
+  }
+
+  public Long getDescendantId() {
+    return this.descendantId;
+  }
+
+  public void setDescendantId(final Long descendantId) {
+    this.descendantId = descendantId;
+  }
+
+  public Integer getDepth() {
+    return this.depth;
+  }
+
+  public void setDepth(final Integer depth) {
+    this.depth = depth;
+  }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OfficeClosureRepository extends JpaRepository<OfficeClosureEntity, Long> {
+
+  @Modifying
+  @Query(value = "INSERT INTO horus_office_closure (ancestor_id, descendant_id, depth) " +
+      "SELECT c.ancestor_id, :officeId, c.depth + 1 FROM horus_office_closure c WHERE c.descendant_id = :parentOfficeId " +
+      "UNION ALL SELECT :officeId, :officeId, 0", nativeQuery = true)
+  int insertPaths(@Param("officeId") final Long officeId, @Param("parentOfficeId") final Long parentOfficeId);
+
+  @Modifying
+  @Query(value = "DELETE FROM horus_office_closure WHERE descendant_id = :officeId OR ancestor_id = :officeId",
+      nativeQuery = true)
+  int deletePaths(@Param("officeId") final Long officeId);
+}
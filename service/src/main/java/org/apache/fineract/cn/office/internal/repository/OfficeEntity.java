@@ -20,9 +20,12 @@ package org.apache.fineract.cn.office.internal.repository;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import javax.persistence.Temporal;
 import javax.persistence.TemporalType;
@@ -38,6 +41,9 @@ public class OfficeEntity {
   private Long id;
   @Column(name = "parent_office_id")
   private Long parentOfficeId;
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "parent_office_id", insertable = false, updatable = false)
+  private OfficeEntity parentOffice;
   @Column(name = "identifier")
   private String identifier;
   @Column(name = "a_name")
@@ -54,6 +60,14 @@ public class OfficeEntity {
   @Column(name = "last_modified_on")
   @Temporal(TemporalType.TIMESTAMP)
   private Date lastModifiedOn;
+  @Column(name = "version", insertable = false, updatable = false)
+  private Long version;
+  @Column(name = "child_count", insertable = false, updatable = false)
+  private Integer childCount;
+  @Column(name = "employee_count", insertable = false, updatable = false)
+  private Integer employeeCount;
+  @Column(name = "active_reference_count", insertable = false, updatable = false)
+  private Integer activeReferenceCount;
 
   public OfficeEntity() {
     super();
@@ -75,6 +89,10 @@ public class OfficeEntity {
     this.parentOfficeId = parentOfficeId;
   }
 
+  public OfficeEntity getParentOffice() {
+    return parentOffice;
+  }
+
   public String getIdentifier() {
     return identifier;
   }
@@ -131,6 +149,22 @@ public class OfficeEntity {
     this.lastModifiedOn = lastModifiedOn;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
+  public Integer getChildCount() {
+    return childCount;
+  }
+
+  public Integer getEmployeeCount() {
+    return employeeCount;
+  }
+
+  public Integer getActiveReferenceCount() {
+    return activeReferenceCount;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.repository;
+
+/**
+ * Read-only view of an office, created by JPQL constructor expressions so list and lookup queries do not need to
+ * hydrate managed {@link OfficeEntity} instances.
+ */
+public class OfficeProjection {
+
+  private final Long id;
+  private final String identifier;
+  private final String name;
+  private final String description;
+  private final String parentIdentifier;
+  private final boolean externalReferences;
+  private final Long version;
+
+  public OfficeProjection(final Long id,
+                          final String identifier,
+                          final String name,
+                          final String description,
+                          final String parentIdentifier,
+                          final Integer childCount,
+                          final Integer employeeCount,
+                          final Integer activeReferenceCount,
+                          final Long version) {
+    super();
+    this.id = id;
+    this.identifier = identifier;
+    this.name = name;
+    this.description = description;
+    this.parentIdentifier = parentIdentifier;
+    this.externalReferences = childCount > 0 || employeeCount > 0 || activeReferenceCount > 0;
+    this.version = version;
+  }
+
+  public Long getId() {
+    return this.id;
+  }
+
+  public String getIdentifier() {
+    return this.identifier;
+  }
+
+  public String getName() {
+    return this.name;
+  }
+
+  public String getDescription() {
+    return this.description;
+  }
+
+  public String getParentIdentifier() {
+    return this.parentIdentifier;
+  }
+
+  public boolean hasExternalReferences() {
+    return this.externalReferences;
+  }
+
+  /**
+   * Read together with the rest of the row, so the tag always matches the state the office is rendered from.
+   */
+  public String getEntityTag() {
+    return new EntityVersion(this.id, this.version).toEntityTag();
+  }
+}
@@ -20,27 +20,283 @@ package org.apache.fineract.cn.office.internal.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OfficeRepository extends JpaRepository<OfficeEntity, Long> {
 
+  String OFFICE_PROJECTION =
+      " new org.apache.fineract.cn.office.internal.repository.OfficeProjection(" +
+          "o.id, o.identifier, o.name, o.description, p.identifier, " +
+          "o.childCount, o.employeeCount, o.activeReferenceCount, o.version) " +
+          "FROM OfficeEntity o LEFT JOIN o.parentOffice p";
+
+  String SELECT_OFFICE_PROJECTION = "SELECT" + OFFICE_PROJECTION;
+
+  String AFTER_OFFICE_KEY =
+      " (o.identifier > :identifier OR (o.identifier = :identifier AND o.id > :id))";
+
+  String ORDER_BY_OFFICE_KEY = " ORDER BY o.identifier ASC, o.id ASC";
+
+  String OFFICE_MATCHES_TERM =
+      " (o.identifier LIKE CONCAT('%', :term, '%') OR o.name LIKE CONCAT('%', :term, '%'))";
+
+  String OFFICE_AT_ADDRESS =
+      " a.officeId = o.id AND a.countryCode = :countryCode" +
+          " AND (:city IS NULL OR a.city = :city) AND (:region IS NULL OR a.region = :region)";
+
+  String FROM_OFFICE_TRIGRAMS = ", SearchTrigramEntity t1, SearchTrigramEntity t2";
+
+  String FROM_OFFICE_TRIGRAM = ", SearchTrigramEntity t";
+
+  String OFFICE_OWNS_TRIGRAMS =
+      " t1.ownerType = '" + TrigramIndex.OFFICE + "' AND t1.trigram = :leadingTrigram AND t1.ownerId = o.id" +
+          " AND t2.ownerType = '" + TrigramIndex.OFFICE + "' AND t2.trigram = :trailingTrigram AND t2.ownerId = o.id";
+
+  String OFFICE_OWNS_TRIGRAM_PREFIX =
+      " t.ownerType = '" + TrigramIndex.OFFICE + "' AND t.trigram LIKE CONCAT(:prefix, '%') AND t.ownerId = o.id";
+
   Optional<OfficeEntity> findByIdentifier(final String identifier);
 
+  @Query("SELECT o.id FROM OfficeEntity o WHERE o.identifier = :identifier")
+  Optional<Long> findIdByIdentifier(@Param("identifier") final String identifier);
+
+  @Query("SELECT new org.apache.fineract.cn.office.internal.repository.EntityIdentifier(o.id, o.identifier) " +
+      "FROM OfficeEntity o")
+  List<EntityIdentifier> findAllIdentifiers();
+
+  @Query("SELECT new org.apache.fineract.cn.office.internal.repository.EntityIdentifier(o.id, o.identifier) " +
+      "FROM OfficeEntity o WHERE o.createdOn >= :createdOn")
+  List<EntityIdentifier> findIdentifiersCreatedSince(@Param("createdOn") final Date createdOn);
+
+  @Query("SELECT new org.apache.fineract.cn.office.internal.repository.EntityVersion(o.id, o.version) " +
+      "FROM OfficeEntity o WHERE o.identifier = :identifier")
+  Optional<EntityVersion> findVersionByIdentifier(@Param("identifier") final String identifier);
+
+  @Query(SELECT_OFFICE_PROJECTION + ORDER_BY_OFFICE_KEY)
+  List<OfficeProjection> findAllProjections();
+
+  @Query(SELECT_OFFICE_PROJECTION + " WHERE o.identifier = :identifier")
+  Optional<OfficeProjection> findProjectionByIdentifier(@Param("identifier") final String identifier);
+
+  @Query(SELECT_OFFICE_PROJECTION + " WHERE o.identifier IN :identifiers")
+  List<OfficeProjection> findProjectionsByIdentifiers(@Param("identifiers") final Collection<String> identifiers);
+
+  @Query(
+      value = SELECT_OFFICE_PROJECTION + " WHERE o.parentOfficeId IS NULL",
+      countQuery = "SELECT COUNT(o) FROM OfficeEntity o WHERE o.parentOfficeId IS NULL"
+  )
+  Page<OfficeProjection> findRootProjections(final Pageable pageable);
+
+  @Query(
+      value = SELECT_OFFICE_PROJECTION + " WHERE o.parentOfficeId = :parentOfficeId",
+      countQuery = "SELECT COUNT(o) FROM OfficeEntity o WHERE o.parentOfficeId = :parentOfficeId"
+  )
+  Page<OfficeProjection> findProjectionsByParentOfficeId(@Param("parentOfficeId") final Long parentOfficeId,
+                                                         final Pageable pageable);
+
+  @Query(
+      value = SELECT_OFFICE_PROJECTION +
+          " WHERE o.identifier LIKE CONCAT('%', :term, '%') OR o.name LIKE CONCAT('%', :term, '%')",
+      countQuery = "SELECT COUNT(o) FROM OfficeEntity o" +
+          " WHERE o.identifier LIKE CONCAT('%', :term, '%') OR o.name LIKE CONCAT('%', :term, '%')"
+  )
+  Page<OfficeProjection> findProjectionsByTerm(@Param("term") final String term, final Pageable pageable);
+
+  @Query(
+      value = "SELECT DISTINCT" + OFFICE_PROJECTION + FROM_OFFICE_TRIGRAM +
+          " WHERE" + OFFICE_OWNS_TRIGRAM_PREFIX + " AND" + OFFICE_MATCHES_TERM,
+      countQuery = "SELECT COUNT(DISTINCT o) FROM OfficeEntity o" + FROM_OFFICE_TRIGRAM +
+          " WHERE" + OFFICE_OWNS_TRIGRAM_PREFIX + " AND" + OFFICE_MATCHES_TERM
+  )
+  Page<OfficeProjection> findProjectionsByTrigramPrefix(@Param("term") final String term,
+                                                        @Param("prefix") final String prefix,
+                                                        final Pageable pageable);
+
+  @Query("SELECT DISTINCT" + OFFICE_PROJECTION + FROM_OFFICE_TRIGRAM +
+      " WHERE" + OFFICE_OWNS_TRIGRAM_PREFIX + " AND" + OFFICE_MATCHES_TERM)
+  Slice<OfficeProjection> findProjectionSliceByTrigramPrefix(@Param("term") final String term,
+                                                             @Param("prefix") final String prefix,
+                                                             final Pageable pageable);
+
+  @Query("SELECT DISTINCT" + OFFICE_PROJECTION + FROM_OFFICE_TRIGRAM +
+      " WHERE" + OFFICE_OWNS_TRIGRAM_PREFIX + " AND" + OFFICE_MATCHES_TERM + " AND" + AFTER_OFFICE_KEY +
+      ORDER_BY_OFFICE_KEY)
+  Slice<OfficeProjection> findProjectionsByTrigramPrefixAfter(@Param("term") final String term,
+                                                              @Param("prefix") final String prefix,
+                                                              @Param("identifier") final String identifier,
+                                                              @Param("id") final Long id,
+                                                              final Pageable pageable);
+
+  @Query(
+      value = SELECT_OFFICE_PROJECTION + FROM_OFFICE_TRIGRAMS +
+          " WHERE" + OFFICE_OWNS_TRIGRAMS + " AND" + OFFICE_MATCHES_TERM,
+      countQuery = "SELECT COUNT(o) FROM OfficeEntity o" + FROM_OFFICE_TRIGRAMS +
+          " WHERE" + OFFICE_OWNS_TRIGRAMS + " AND" + OFFICE_MATCHES_TERM
+  )
+  Page<OfficeProjection> findProjectionsByTrigrams(@Param("term") final String term,
+                                                   @Param("leadingTrigram") final String leadingTrigram,
+                                                   @Param("trailingTrigram") final String trailingTrigram,
+                                                   final Pageable pageable);
+
+  @Query(SELECT_OFFICE_PROJECTION + FROM_OFFICE_TRIGRAMS + " WHERE" + OFFICE_OWNS_TRIGRAMS + " AND" +
+      OFFICE_MATCHES_TERM)
+  Slice<OfficeProjection> findProjectionSliceByTrigrams(@Param("term") final String term,
+                                                        @Param("leadingTrigram") final String leadingTrigram,
+                                                        @Param("trailingTrigram") final String trailingTrigram,
+                                                        final Pageable pageable);
+
+  @Query(SELECT_OFFICE_PROJECTION + FROM_OFFICE_TRIGRAMS + " WHERE" + OFFICE_OWNS_TRIGRAMS + " AND" +
+      OFFICE_MATCHES_TERM + " AND" + AFTER_OFFICE_KEY + ORDER_BY_OFFICE_KEY)
+  Slice<OfficeProjection> findProjectionsByTrigramsAfter(@Param("term") final String term,
+                                                         @Param("leadingTrigram") final String leadingTrigram,
+                                                         @Param("trailingTrigram") final String trailingTrigram,
+                                                         @Param("identifier") final String identifier,
+                                                         @Param("id") final Long id,
+                                                         final Pageable pageable);
+
+  @Query(SELECT_OFFICE_PROJECTION + " WHERE o.parentOfficeId IS NULL")
+  Slice<OfficeProjection> findRootProjectionSlice(final Pageable pageable);
+
+  @Query(SELECT_OFFICE_PROJECTION + " WHERE o.parentOfficeId = :parentOfficeId")
+  Slice<OfficeProjection> findProjectionSliceByParentOfficeId(@Param("parentOfficeId") final Long parentOfficeId,
+                                                              final Pageable pageable);
+
+  @Query(SELECT_OFFICE_PROJECTION +
+      " WHERE o.identifier LIKE CONCAT('%', :term, '%') OR o.name LIKE CONCAT('%', :term, '%')")
+  Slice<OfficeProjection> findProjectionSliceByTerm(@Param("term") final String term, final Pageable pageable);
+
+  @Query(SELECT_OFFICE_PROJECTION + " WHERE o.parentOfficeId IS NULL AND" + AFTER_OFFICE_KEY + ORDER_BY_OFFICE_KEY)
+  Slice<OfficeProjection> findRootProjectionsAfter(@Param("identifier") final String identifier,
+                                                   @Param("id") final Long id,
+                                                   final Pageable pageable);
+
+  @Query(SELECT_OFFICE_PROJECTION + " WHERE o.parentOfficeId = :parentOfficeId AND" + AFTER_OFFICE_KEY + ORDER_BY_OFFICE_KEY)
+  Slice<OfficeProjection> findProjectionsByParentOfficeIdAfter(@Param("parentOfficeId") final Long parentOfficeId,
+                                                               @Param("identifier") final String identifier,
+                                                               @Param("id") final Long id,
+                                                               final Pageable pageable);
+
+  @Query(SELECT_OFFICE_PROJECTION +
+      " WHERE (o.identifier LIKE CONCAT('%', :term, '%') OR o.name LIKE CONCAT('%', :term, '%')) AND" +
+      AFTER_OFFICE_KEY + ORDER_BY_OFFICE_KEY)
+  Slice<OfficeProjection> findProjectionsByTermAfter(@Param("term") final String term,
+                                                     @Param("identifier") final String identifier,
+                                                     @Param("id") final Long id,
+                                                     final Pageable pageable);
+
+  @Query(
+      value = SELECT_OFFICE_PROJECTION + ", OfficeClosureEntity c" +
+          " WHERE c.ancestorId = :officeId AND c.descendantId = o.id AND c.depth > 0",
+      countQuery = "SELECT COUNT(c) FROM OfficeClosureEntity c WHERE c.ancestorId = :officeId AND c.depth > 0"
+  )
+  Page<OfficeProjection> findDescendantProjections(@Param("officeId") final Long officeId, final Pageable pageable);
+
+  @Query(
+      value = SELECT_OFFICE_PROJECTION + ", AddressEntity a WHERE" + OFFICE_AT_ADDRESS,
+      countQuery = "SELECT COUNT(o) FROM OfficeEntity o, AddressEntity a WHERE" + OFFICE_AT_ADDRESS
+  )
+  Page<OfficeProjection> findProjectionsByAddress(@Param("countryCode") final String countryCode,
+                                                  @Param("city") final String city,
+                                                  @Param("region") final String region,
+                                                  final Pageable pageable);
+
+  @Query(SELECT_OFFICE_PROJECTION + ", AddressEntity a WHERE" + OFFICE_AT_ADDRESS)
+  Slice<OfficeProjection> findProjectionSliceByAddress(@Param("countryCode") final String countryCode,
+                                                       @Param("city") final String city,
+                                                       @Param("region") final String region,
+                                                       final Pageable pageable);
+
+  @Query(SELECT_OFFICE_PROJECTION + ", AddressEntity a WHERE" + OFFICE_AT_ADDRESS + " AND" +
+      AFTER_OFFICE_KEY + ORDER_BY_OFFICE_KEY)
+  Slice<OfficeProjection> findProjectionsByAddressAfter(@Param("countryCode") final String countryCode,
+                                                        @Param("city") final String city,
+                                                        @Param("region") final String region,
+                                                        @Param("identifier") final String identifier,
+                                                        @Param("id") final Long id,
+                                                        final Pageable pageable);
+
+  @Query(SELECT_OFFICE_PROJECTION + ", OfficeClosureEntity c" +
+      " WHERE c.descendantId = :officeId AND c.ancestorId = o.id AND c.depth > 0 ORDER BY c.depth DESC")
+  List<OfficeProjection> findAncestorProjections(@Param("officeId") final Long officeId);
+
   @Query("SELECT CASE WHEN COUNT(o) > 0 THEN 'true' ELSE 'false' END FROM OfficeEntity o WHERE o.identifier = :identifier")
   Boolean existsByIdentifier(@Param("identifier") final String identifier);
 
-  @Query("SELECT CASE WHEN COUNT(o) > 0 THEN 'true' ELSE 'false' END FROM OfficeEntity o WHERE o.parentOfficeId = :parentOfficeId")
-  Boolean existsByParentOfficeId(@Param("parentOfficeId") final Long parentOfficeId);
+  /**
+   * Returns one row of three flags for branches, employees and references in the given state, or no row if the
+   * office of the given identifier does not exist.
+   */
+  @Query(value = "SELECT " +
+      "EXISTS (SELECT 1 FROM horus_offices c WHERE c.parent_office_id = o.id), " +
+      "EXISTS (SELECT 1 FROM horus_employees e WHERE e.assigned_office_id = o.id), " +
+      "EXISTS (SELECT 1 FROM horus_external_references r WHERE r.office_identifier = o.identifier AND r.a_state = :state) " +
+      "FROM horus_offices o WHERE o.identifier = :identifier", nativeQuery = true)
+  List<Object[]> findDependents(@Param("identifier") final String identifier, @Param("state") final String state);
+
+  /**
+   * Versions are only ever raised in the database, so concurrent commands can not both claim the same version.
+   */
+  @Modifying
+  @Query("UPDATE OfficeEntity o SET o.version = o.version + 1 WHERE o.id = :officeId")
+  int incrementVersion(@Param("officeId") final Long officeId);
+
+  /**
+   * Derives the tree path of a new office from the path of its parent. Each identifier is followed by a space, which
+   * sorts before every character allowed in identifiers, so ordering by tree path lists offices depth first.
+   */
+  @Modifying
+  @Query(value = "UPDATE horus_offices o LEFT JOIN horus_offices p ON p.id = o.parent_office_id " +
+      "SET o.tree_path = CONCAT(COALESCE(p.tree_path, ''), o.identifier, ' ') WHERE o.id = :officeId",
+      nativeQuery = true)
+  int assignTreePath(@Param("officeId") final Long officeId);
+
+  @Modifying
+  @Query("UPDATE OfficeEntity o SET o.version = o.version + 1, o.childCount = o.childCount + :delta WHERE o.id = :officeId")
+  int adjustChildCount(@Param("officeId") final Long officeId, @Param("delta") final int delta);
+
+  @Modifying
+  @Query("UPDATE OfficeEntity o SET o.version = o.version + 1, o.employeeCount = o.employeeCount + :delta " +
+      "WHERE o.id = :officeId")
+  int adjustEmployeeCount(@Param("officeId") final Long officeId, @Param("delta") final int delta);
+
+  @Modifying
+  @Query("UPDATE OfficeEntity o SET o.version = o.version + 1, o.activeReferenceCount = (" +
+      "SELECT COUNT(r) FROM ExternalReferenceEntity r WHERE r.officeIdentifier = :identifier AND r.state = :state) " +
+      "WHERE o.identifier = :identifier")
+  int refreshActiveReferenceCount(@Param("identifier") final String identifier, @Param("state") final String state);
 
-  Page<OfficeEntity> findByParentOfficeIdIsNull(final Pageable pageable);
+  @Modifying
+  @Query(value = "UPDATE horus_offices o " +
+      "LEFT JOIN (SELECT parent_office_id, COUNT(*) AS cnt FROM horus_offices " +
+      "WHERE parent_office_id IS NOT NULL GROUP BY parent_office_id) c ON c.parent_office_id = o.id " +
+      "SET o.version = o.version + 1, o.child_count = COALESCE(c.cnt, 0) " +
+      "WHERE o.child_count <> COALESCE(c.cnt, 0)", nativeQuery = true)
+  int repairChildCounts();
 
-  Page<OfficeEntity> findByParentOfficeId(final Long parentOfficeId, final Pageable pageable);
+  @Modifying
+  @Query(value = "UPDATE horus_offices o " +
+      "LEFT JOIN (SELECT assigned_office_id, COUNT(*) AS cnt FROM horus_employees " +
+      "WHERE assigned_office_id IS NOT NULL GROUP BY assigned_office_id) e ON e.assigned_office_id = o.id " +
+      "SET o.version = o.version + 1, o.employee_count = COALESCE(e.cnt, 0) " +
+      "WHERE o.employee_count <> COALESCE(e.cnt, 0)", nativeQuery = true)
+  int repairEmployeeCounts();
 
-  Page<OfficeEntity> findByIdentifierContainingOrNameContaining(final String identifier, final String name, final Pageable pageable);
+  @Modifying
+  @Query(value = "UPDATE horus_offices o " +
+      "LEFT JOIN (SELECT office_identifier, COUNT(*) AS cnt FROM horus_external_references " +
+      "WHERE a_state = :state GROUP BY office_identifier) r ON r.office_identifier = o.identifier " +
+      "SET o.version = o.version + 1, o.active_reference_count = COALESCE(r.cnt, 0) " +
+      "WHERE o.active_reference_count <> COALESCE(r.cnt, 0)", nativeQuery = true)
+  int repairActiveReferenceCounts(@Param("state") final String state);
 }
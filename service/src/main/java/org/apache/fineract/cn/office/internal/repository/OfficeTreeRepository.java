@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Walks whole sub-hierarchies with one streaming query over the indexed tree paths of offices. Rows arrive in
+ * depth-first order, branches sorted by identifier, so callers can emit nested output while holding only the current
+ * path.
+ */
+@Repository
+public class OfficeTreeRepository {
+
+  // forced, since the optimizer would rather sort the whole table than read rows in index order
+  private static final String SELECT_TREE =
+      "SELECT o.id, o.identifier, o.a_name, o.description, p.identifier AS parent_identifier, " +
+          "o.child_count, o.employee_count, o.active_reference_count, o.version, " +
+          "a.street, a.city, a.region, a.postal_code, a.country_code, a.country, " +
+          "CHAR_LENGTH(o.tree_path) - CHAR_LENGTH(REPLACE(o.tree_path, ' ', '')) - 1 AS office_level " +
+          "FROM horus_offices o FORCE INDEX (office_tree_path_idx) " +
+          "LEFT JOIN horus_offices p ON p.id = o.parent_office_id " +
+          "LEFT JOIN horus_addresses a ON a.office_id = o.id ";
+
+  private final DataSource dataSource;
+
+  @Autowired
+  public OfficeTreeRepository(final DataSource dataSource) {
+    super();
+    this.dataSource = dataSource;
+  }
+
+  /**
+   * Visits the given office and all offices below it. Their tree paths start with the path of the given office,
+   * which ends with a space, so they lie between that path and the same path ending with the next character instead.
+   */
+  public void walkTree(final Long officeId, final OfficeTreeVisitor visitor) {
+    this.walk(SELECT_TREE + "JOIN horus_offices r ON r.id = ? " +
+        "WHERE o.tree_path >= r.tree_path " +
+        "AND o.tree_path < CONCAT(LEFT(r.tree_path, CHAR_LENGTH(r.tree_path) - 1), '!') " +
+        "ORDER BY o.tree_path", visitor, officeId);
+  }
+
+  /**
+   * Visits every office, one root office and its branches after the other.
+   */
+  public void walkForest(final OfficeTreeVisitor visitor) {
+    this.walk(SELECT_TREE + "ORDER BY o.tree_path", visitor);
+  }
+
+  private void walk(final String sql, final OfficeTreeVisitor visitor, final Object... arguments) {
+    new JdbcTemplate(this.dataSource).execute((ConnectionCallback<Void>) connection -> {
+      try (final PreparedStatement preparedStatement = connection.prepareStatement(sql)) {
+        // streams rows instead of buffering the complete result in the driver
+        preparedStatement.setFetchSize(Integer.MIN_VALUE);
+        for (int i = 0; i < arguments.length; i++) {
+          preparedStatement.setObject(i + 1, arguments[i]);
+        }
+        try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+          while (resultSet.next()) {
+            visitor.visit(resultSet.getInt("office_level"), OfficeTreeRepository.mapOffice(resultSet),
+                OfficeTreeRepository.mapAddress(resultSet));
+          }
+        }
+      }
+      return null;
+    });
+  }
+
+  private static OfficeProjection mapOffice(final ResultSet resultSet) throws SQLException {
+    return new OfficeProjection(
+        resultSet.getLong("id"),
+        resultSet.getString("identifier"),
+        resultSet.getString("a_name"),
+        resultSet.getString("description"),
+        resultSet.getString("parent_identifier"),
+        resultSet.getInt("child_count"),
+        resultSet.getInt("employee_count"),
+        resultSet.getInt("active_reference_count"),
+        resultSet.getLong("version"));
+  }
+
+  private static AddressEntity mapAddress(final ResultSet resultSet) throws SQLException {
+    if (resultSet.getString("street") == null) {
+      return null;
+    }
+    final AddressEntity addressEntity = new AddressEntity();
+    addressEntity.setStreet(resultSet.getString("street"));
+    addressEntity.setCity(resultSet.getString("city"));
+    addressEntity.setRegion(resultSet.getString("region"));
+    addressEntity.setPostalCode(resultSet.getString("postal_code"));
+    addressEntity.setCountryCode(resultSet.getString("country_code"));
+    addressEntity.setCountry(resultSet.getString("country"));
+    return addressEntity;
+  }
+
+  @FunctionalInterface
+  public interface OfficeTreeVisitor {
+
+    void visit(final int level, final OfficeProjection officeProjection, final AddressEntity addressEntity);
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.repository;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Folds searchable text and search terms into the same case- and accent-insensitive form, and contact values into
+ * the form used for reverse lookups.
+ */
+public final class SearchText {
+
+  private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern NON_DIGITS = Pattern.compile("[^0-9]");
+
+  private SearchText() {
+    super();
+  }
+
+  public static String normalize(final String text) {
+    if (text == null) {
+      return null;
+    }
+    final String decomposedText = Normalizer.normalize(text, Normalizer.Form.NFD);
+    return COMBINING_MARKS.matcher(decomposedText).replaceAll("").toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Email addresses are lower-cased, phone numbers reduced to their digits with a leading + for international ones.
+   */
+  public static String contactValue(final String value) {
+    if (value == null) {
+      return null;
+    }
+    final String trimmedValue = value.trim();
+    if (trimmedValue.indexOf('@') >= 0) {
+      return trimmedValue.toLowerCase(Locale.ROOT);
+    }
+    final String digits = NON_DIGITS.matcher(trimmedValue).replaceAll("");
+    if (digits.isEmpty()) {
+      return trimmedValue.toLowerCase(Locale.ROOT);
+    }
+    if (trimmedValue.startsWith("+")) {
+      return "+" + digits;
+    }
+    if (digits.startsWith("00")) {
+      return "+" + digits.substring(2);
+    }
+    return digits;
+  }
+
+  public static String employeeName(final EmployeeEntity employeeEntity) {
+    return SearchText.employeeName(employeeEntity.getGivenName(), employeeEntity.getMiddleName(),
+        employeeEntity.getSurname());
+  }
+
+  public static String employeeName(final String givenName, final String middleName, final String surname) {
+    final String name = Stream.of(givenName, middleName, surname)
+        .filter(Objects::nonNull)
+        .map(String::trim)
+        .filter(part -> !part.isEmpty())
+        .collect(Collectors.joining(" "));
+    return name.isEmpty() ? null : SearchText.normalize(name);
+  }
+}
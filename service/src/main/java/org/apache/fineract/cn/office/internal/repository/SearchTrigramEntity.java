@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.repository;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "horus_search_trigrams")
+public class SearchTrigramEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "id")
+  private Long id;
+  @Column(name = "owner_type", nullable = false, length = 16)
+  private String ownerType;
+  @Column(name = "owner_id", nullable = false)
+  private Long ownerId;
+  @Column(name = "trigram", nullable = false, length = 3)
+  private String trigram;
+
+  public SearchTrigramEntity() {
+    super();
+  }
+
+  public Long getId() {
+    return this.id;
+  }
+
+  public void setId(final Long id) {
+    this.id = id;
+  }
+
+  public String getOwnerType() {
+    return this.ownerType;
+  }
+
+  public void setOwnerType(final String ownerType) {
+    this.ownerType = ownerType;
+  }
+
+  public Long getOwnerId() {
+    return this.ownerId;
+  }
+
+  public void setOwnerId(final Long ownerId) {
+    this.ownerId = ownerId;
+  }
+
+  public String getTrigram() {
+    return this.trigram;
+  }
+
+  public void setTrigram(final String trigram) {
+    this.trigram = trigram;
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.repository;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Maintains the trigrams of searchable text. A row only matches a search term if it owns every trigram of the term,
+ * so term searches can narrow the candidates through the trigram index before verifying them with LIKE. Terms
+ * shorter than a trigram are looked up as trigram prefix instead.
+ */
+@Component
+public class TrigramIndex {
+
+  public static final String OFFICE = "OFFICE";
+  public static final String EMPLOYEE = "EMPLOYEE";
+
+  public static final int TRIGRAM_LENGTH = 3;
+
+  private final SearchTrigramRepository searchTrigramRepository;
+
+  @Autowired
+  public TrigramIndex(final SearchTrigramRepository searchTrigramRepository) {
+    super();
+    this.searchTrigramRepository = searchTrigramRepository;
+  }
+
+  public void indexOffice(final OfficeEntity officeEntity) {
+    this.index(OFFICE, officeEntity.getId(),
+        TrigramIndex.officeText(officeEntity.getIdentifier(), officeEntity.getName()));
+  }
+
+  public void removeOffice(final Long officeId) {
+    this.searchTrigramRepository.deleteByOwner(OFFICE, officeId);
+  }
+
+  public void indexEmployee(final EmployeeEntity employeeEntity) {
+    this.index(EMPLOYEE, employeeEntity.getId(),
+        TrigramIndex.employeeText(employeeEntity.getIdentifier(), employeeEntity.getSearchName()));
+  }
+
+  public void removeEmployee(final Long employeeId) {
+    this.searchTrigramRepository.deleteByOwner(EMPLOYEE, employeeId);
+  }
+
+  /**
+   * Replaces the trigrams of the given owner with the trigrams of the given text.
+   */
+  private void index(final String ownerType, final Long ownerId, final String text) {
+    this.searchTrigramRepository.deleteByOwner(ownerType, ownerId);
+
+    final List<SearchTrigramEntity> searchTrigramEntities = TrigramIndex.trigrams(text)
+        .stream()
+        .map(trigram -> {
+          final SearchTrigramEntity searchTrigramEntity = new SearchTrigramEntity();
+          searchTrigramEntity.setOwnerType(ownerType);
+          searchTrigramEntity.setOwnerId(ownerId);
+          searchTrigramEntity.setTrigram(trigram);
+          return searchTrigramEntity;
+        })
+        .collect(Collectors.toList());
+    this.searchTrigramRepository.save(searchTrigramEntities);
+  }
+
+  public static String officeText(final String identifier, final String name) {
+    return identifier + " " + name;
+  }
+
+  public static String employeeText(final String identifier, final String searchName) {
+    return searchName != null ? identifier + " " + searchName : identifier;
+  }
+
+  /**
+   * Terms shorter than a trigram, or carrying LIKE wildcards, can not be answered from the index.
+   */
+  public static boolean isSearchable(final String term) {
+    return term != null && SearchText.normalize(term).length() >= TRIGRAM_LENGTH && !TrigramIndex.hasWildcards(term);
+  }
+
+  /**
+   * Terms shorter than a trigram are answered through the trigrams they start; every trigram of a text is a
+   * candidate, so the match still has to be verified.
+   */
+  public static boolean isPrefixSearchable(final String term) {
+    return term != null && !term.isEmpty() && SearchText.normalize(term).length() < TRIGRAM_LENGTH
+        && !TrigramIndex.hasWildcards(term);
+  }
+
+  /**
+   * Candidates are probed with the first and the last trigram of a term, every candidate is verified afterwards.
+   */
+  public static String leadingTrigram(final String term) {
+    return SearchText.normalize(term).substring(0, TRIGRAM_LENGTH);
+  }
+
+  public static String trailingTrigram(final String term) {
+    final String normalizedTerm = SearchText.normalize(term);
+    return normalizedTerm.substring(normalizedTerm.length() - TRIGRAM_LENGTH);
+  }
+
+  /**
+   * The text is padded with a trailing blank, so every shorter term contained in the text starts at least one of
+   * its trigrams, even at the very end of the text.
+   */
+  public static Set<String> trigrams(final String text) {
+    final Set<String> trigrams = new LinkedHashSet<>();
+    if (text == null) {
+      return trigrams;
+    }
+    final String normalizedText = SearchText.normalize(text) + " ";
+    for (int i = 0; i + TRIGRAM_LENGTH <= normalizedText.length(); i++) {
+      trigrams.add(normalizedText.substring(i, i + TRIGRAM_LENGTH));
+    }
+    return trigrams;
+  }
+
+  private static boolean hasWildcards(final String term) {
+    return term.indexOf('%') >= 0 || term.indexOf('_') >= 0;
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit, miss and eviction counts of one of the in-memory caches of the service.
+ */
+public final class CacheStatistics {
+
+  private final AtomicLong hits;
+  private final AtomicLong misses;
+  private final AtomicLong evictions;
+
+  public CacheStatistics() {
+    super();
+    this.hits = new AtomicLong();
+    this.misses = new AtomicLong();
+    this.evictions = new AtomicLong();
+  }
+
+  void recordHit() {
+    this.hits.incrementAndGet();
+  }
+
+  void recordMiss() {
+    this.misses.incrementAndGet();
+  }
+
+  void recordEviction() {
+    this.evictions.incrementAndGet();
+  }
+
+  void recordEvictions(final int count) {
+    this.evictions.addAndGet(count);
+  }
+
+  public long getHits() {
+    return this.hits.get();
+  }
+
+  public long getMisses() {
+    return this.misses.get();
+  }
+
+  public long getEvictions() {
+    return this.evictions.get();
+  }
+
+  public double getHitRatio() {
+    final long hits = this.hits.get();
+    final long requests = hits + this.misses.get();
+    return requests == 0L ? 1.0D : (double) hits / requests;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d hits, %d misses, hit ratio %.3f, %d evictions",
+        this.getHits(), this.getMisses(), this.getHitRatio(), this.getEvictions());
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
+import org.apache.fineract.cn.lang.ServiceException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+/**
+ * Opaque cursor for keyset pagination, holding the identifier and id of the last element of a page. Pages continued
+ * with a token are always sorted by identifier and id in ascending order.
+ */
+public final class ContinuationToken {
+
+  private static final String SORT_COLUMN = "identifier";
+  private static final char SEPARATOR = ':';
+
+  private final String identifier;
+  private final Long id;
+
+  private ContinuationToken(final String identifier, final Long id) {
+    super();
+    this.identifier = identifier;
+    this.id = id;
+  }
+
+  public static ContinuationToken of(final String identifier, final Long id) {
+    return new ContinuationToken(identifier, id);
+  }
+
+  public static ContinuationToken decode(final String cursor) {
+    try {
+      final String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      final int separatorIndex = decoded.indexOf(SEPARATOR);
+      if (separatorIndex > 0 && separatorIndex < decoded.length() - 1) {
+        return new ContinuationToken(decoded.substring(separatorIndex + 1), Long.valueOf(decoded.substring(0, separatorIndex)));
+      }
+    } catch (final IllegalArgumentException ex) {
+      // falls through to bad request
+    }
+    throw ServiceException.badRequest("Cursor {0} is not valid.", cursor);
+  }
+
+  /**
+   * Cursors can only be handed out for pages whose order matches the keyset order.
+   */
+  public static boolean supports(final Pageable pageable) {
+    final Sort sort = pageable.getSort();
+    if (sort == null) {
+      return true;
+    }
+    final Iterator<Sort.Order> orders = sort.iterator();
+    if (!orders.hasNext()) {
+      return true;
+    }
+    final Sort.Order order = orders.next();
+    return !orders.hasNext() && SORT_COLUMN.equals(order.getProperty()) && order.isAscending();
+  }
+
+  public static void checkSupported(final String sortColumn, final String sortDirection) {
+    if ((sortColumn != null && !SORT_COLUMN.equals(sortColumn))
+        || (sortDirection != null && !Sort.Direction.ASC.name().equalsIgnoreCase(sortDirection))) {
+      throw ServiceException.badRequest("Cursor pagination only supports ascending order by {0}.", SORT_COLUMN);
+    }
+  }
+
+  public String getIdentifier() {
+    return this.identifier;
+  }
+
+  public Long getId() {
+    return this.id;
+  }
+
+  public String encode() {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((this.id.toString() + SEPARATOR + this.identifier).getBytes(StandardCharsets.UTF_8));
+  }
+}
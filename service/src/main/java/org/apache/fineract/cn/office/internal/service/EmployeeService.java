@@ -19,9 +19,14 @@
 package org.apache.fineract.cn.office.internal.service;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.apache.fineract.cn.lang.ServiceException;
 import org.apache.fineract.cn.office.ServiceConstants;
@@ -32,16 +37,20 @@ import org.apache.fineract.cn.office.internal.mapper.ContactDetailMapper;
 import org.apache.fineract.cn.office.internal.mapper.EmployeeMapper;
 import org.apache.fineract.cn.office.internal.repository.ContactDetailEntity;
 import org.apache.fineract.cn.office.internal.repository.ContactDetailRepository;
-import org.apache.fineract.cn.office.internal.repository.EmployeeEntity;
+import org.apache.fineract.cn.office.internal.repository.EmployeeProjection;
 import org.apache.fineract.cn.office.internal.repository.EmployeeRepository;
-import org.apache.fineract.cn.office.internal.repository.OfficeEntity;
-import org.apache.fineract.cn.office.internal.repository.OfficeRepository;
+import org.apache.fineract.cn.office.internal.repository.EntityVersion;
+import org.apache.fineract.cn.office.internal.repository.SearchText;
+import org.apache.fineract.cn.office.internal.repository.TrigramIndex;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class EmployeeService {
@@ -49,79 +58,207 @@ public class EmployeeService {
   private final Logger logger;
   private final EmployeeRepository employeeRepository;
   private final ContactDetailRepository contactDetailRepository;
-  private final OfficeRepository officeRepository;
+  private final IdentifierCache identifierCache;
 
   @Autowired
   public EmployeeService(@Qualifier(ServiceConstants.REST_LOGGER_NAME) final Logger logger,
                          final EmployeeRepository employeeRepository,
                          final ContactDetailRepository contactDetailRepository,
-                         final OfficeRepository officeRepository) {
+                         final IdentifierCache identifierCache) {
     super();
     this.logger = logger;
     this.employeeRepository = employeeRepository;
     this.contactDetailRepository = contactDetailRepository;
-    this.officeRepository = officeRepository;
+    this.identifierCache = identifierCache;
   }
 
   public Boolean employeeExists(final String code) {
-    return this.employeeRepository.existsByIdentifier(code);
+    return this.identifierCache.findEmployeeId(code).isPresent();
   }
 
-  public Optional<Employee> findByCode(final String code) {
-    final EmployeeEntity employeeEntity = this.employeeRepository.findByIdentifier(code);
-    if (employeeEntity != null) {
-      final Employee employee = EmployeeMapper.map(employeeEntity);
-      employee.setContactDetails(this.findContactDetailsByEmployee(employeeEntity.getIdentifier()));
-      return Optional.of(employee);
-    } else {
+  /**
+   * Yields nothing for unknown employees. The employee is only read if the given check rejects its current entity
+   * tag, otherwise the tagged value is null.
+   */
+  @Transactional(readOnly = true)
+  public Optional<Tagged<Employee>> findByCode(final String code, final Predicate<String> notModified) {
+    final Optional<EntityVersion> entityVersion = this.employeeRepository.findVersionByIdentifier(code);
+    if (!entityVersion.isPresent()) {
       return Optional.empty();
     }
+    if (notModified.test(entityVersion.get().toEntityTag())) {
+      return Optional.of(new Tagged<>(entityVersion.get().toEntityTag(), null));
+    }
+
+    return this.employeeRepository.findProjectionByIdentifier(code).map(employeeProjection -> {
+      final Employee employee = EmployeeMapper.map(employeeProjection);
+      employee.setContactDetails(this.findContactDetailsByEmployeeIds(Collections.singletonList(employeeProjection.getId()))
+          .getOrDefault(employeeProjection.getId(), Collections.emptyList()));
+      return new Tagged<>(employeeProjection.getEntityTag(), employee);
+    });
   }
 
-  public EmployeePage findEmployees(final String term, final String officeIdentifier, final Pageable pageRequest) {
+  /**
+   * Resolves the given employees in the order given and skips unknown identifiers.
+   */
+  @Transactional(readOnly = true)
+  public List<Employee> findEmployeesByIdentifiers(final Collection<String> identifiers, final Expansion expansion) {
+    final Map<String, Employee> employeesByIdentifier =
+        this.extractEmployees(this.employeeRepository.findProjectionsByIdentifiers(identifiers), expansion)
+            .stream()
+            .collect(Collectors.toMap(employee -> IdentifierFilter.matchKey(employee.getIdentifier()),
+                Function.identity()));
 
-    final Page<EmployeeEntity> employeeEntityPage;
-    if (term != null) {
-      employeeEntityPage = this.employeeRepository.findByIdentifierContaining(term, pageRequest);
+    return identifiers.stream()
+        .map(identifier -> employeesByIdentifier.get(IdentifierFilter.matchKey(identifier)))
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
+  }
+
+  @Transactional(readOnly = true)
+  public EmployeePage findEmployees(final String term, final String officeIdentifier, final Pageable pageRequest,
+                                    final boolean withTotals, final Expansion expansion) {
+
+    final String searchTerm = SearchText.normalize(term);
+    final Slice<EmployeeProjection> employeeProjectionSlice;
+    if (TrigramIndex.isSearchable(searchTerm)) {
+      final String leadingTrigram = TrigramIndex.leadingTrigram(searchTerm);
+      final String trailingTrigram = TrigramIndex.trailingTrigram(searchTerm);
+      employeeProjectionSlice = withTotals
+          ? this.employeeRepository.findProjectionsByTrigrams(searchTerm, leadingTrigram, trailingTrigram, pageRequest)
+          : this.employeeRepository.findProjectionSliceByTrigrams(searchTerm, leadingTrigram, trailingTrigram, pageRequest);
+    } else if (TrigramIndex.isPrefixSearchable(searchTerm)) {
+      employeeProjectionSlice = withTotals
+          ? this.employeeRepository.findProjectionsByTrigramPrefix(searchTerm, pageRequest)
+          : this.employeeRepository.findProjectionSliceByTrigramPrefix(searchTerm, pageRequest);
+    } else if (searchTerm != null) {
+      employeeProjectionSlice = withTotals
+          ? this.employeeRepository.findProjectionsByTerm(searchTerm, pageRequest)
+          : this.employeeRepository.findProjectionSliceByTerm(searchTerm, pageRequest);
     } else if (officeIdentifier != null) {
-      final OfficeEntity officeEntity = this.officeRepository.findByIdentifier(officeIdentifier)
+      final Long officeId = this.identifierCache.findOfficeId(officeIdentifier)
           .orElseThrow(() -> ServiceException.notFound("Office {0} not found.", officeIdentifier));
-      employeeEntityPage = this.employeeRepository.findByAssignedOffice(officeEntity, pageRequest);
+      employeeProjectionSlice = withTotals
+          ? this.employeeRepository.findProjectionsByAssignedOfficeId(officeId, pageRequest)
+          : this.employeeRepository.findProjectionSliceByAssignedOfficeId(officeId, pageRequest);
     } else {
-      employeeEntityPage = this.employeeRepository.findAll(pageRequest);
+      employeeProjectionSlice = withTotals
+          ? this.employeeRepository.findAllProjections(pageRequest)
+          : this.employeeRepository.findAllProjectionSlice(pageRequest);
     }
 
-    final EmployeePage employeePage = new EmployeePage();
-    employeePage.setTotalPages(employeeEntityPage.getTotalPages());
-    employeePage.setTotalElements(employeeEntityPage.getTotalElements());
+    return this.createEmployeePage(employeeProjectionSlice, ContinuationToken.supports(pageRequest), expansion);
+  }
 
-    final List<Employee> employees = new ArrayList<>();
-    employeePage.setEmployees(employees);
-    employeeEntityPage.forEach(employeeEntity -> {
-      final Employee employee = EmployeeMapper.map(employeeEntity);
-      employees.add(employee);
+  @Transactional(readOnly = true)
+  public EmployeePage findEmployeesByContact(final String contact, final Pageable pageRequest,
+                                             final Expansion expansion) {
+    final Page<EmployeeProjection> employeeProjectionPage =
+        this.employeeRepository.findProjectionsByContact(SearchText.contactValue(contact), pageRequest);
+    return this.createEmployeePage(employeeProjectionPage, false, expansion);
+  }
 
-      employee.setContactDetails(this.findContactDetailsByEmployee(employeeEntity.getIdentifier()));
+  @Transactional(readOnly = true)
+  public EmployeePage findEmployeesAfter(final String term, final String officeIdentifier, final String cursor,
+                                         final Integer size, final Expansion expansion) {
+    final ContinuationToken continuationToken = ContinuationToken.decode(cursor);
+    final Pageable pageRequest = new PageRequest(0, size);
 
-    });
+    final String searchTerm = SearchText.normalize(term);
+    final Slice<EmployeeProjection> employeeProjectionSlice;
+    if (TrigramIndex.isSearchable(searchTerm)) {
+      final String leadingTrigram = TrigramIndex.leadingTrigram(searchTerm);
+      final String trailingTrigram = TrigramIndex.trailingTrigram(searchTerm);
+      employeeProjectionSlice = this.employeeRepository.findProjectionsByTrigramsAfter(searchTerm, leadingTrigram,
+          trailingTrigram, continuationToken.getIdentifier(), continuationToken.getId(), pageRequest);
+    } else if (TrigramIndex.isPrefixSearchable(searchTerm)) {
+      employeeProjectionSlice = this.employeeRepository.findProjectionsByTrigramPrefixAfter(searchTerm,
+          continuationToken.getIdentifier(), continuationToken.getId(), pageRequest);
+    } else if (searchTerm != null) {
+      employeeProjectionSlice = this.employeeRepository.findProjectionsByTermAfter(searchTerm,
+          continuationToken.getIdentifier(), continuationToken.getId(), pageRequest);
+    } else if (officeIdentifier != null) {
+      final Long officeId = this.identifierCache.findOfficeId(officeIdentifier)
+          .orElseThrow(() -> ServiceException.notFound("Office {0} not found.", officeIdentifier));
+      employeeProjectionSlice = this.employeeRepository.findProjectionsByAssignedOfficeIdAfter(officeId,
+          continuationToken.getIdentifier(), continuationToken.getId(), pageRequest);
+    } else {
+      employeeProjectionSlice = this.employeeRepository.findAllProjectionsAfter(
+          continuationToken.getIdentifier(), continuationToken.getId(), pageRequest);
+    }
 
-    return employeePage;
+    return this.createEmployeePage(employeeProjectionSlice, true, expansion);
   }
 
+  private EmployeePage createEmployeePage(final Slice<EmployeeProjection> employeeProjectionSlice,
+                                          final boolean withCursor,
+                                          final Expansion expansion) {
+    final EmployeePage employeePage = new EmployeePage();
+    if (employeeProjectionSlice instanceof Page) {
+      final Page<EmployeeProjection> employeeProjectionPage = (Page<EmployeeProjection>) employeeProjectionSlice;
+      employeePage.setTotalPages(employeeProjectionPage.getTotalPages());
+      employeePage.setTotalElements(employeeProjectionPage.getTotalElements());
+    }
+    employeePage.setHasNextPage(employeeProjectionSlice.hasNext());
 
-  public List<ContactDetail> findContactDetailsByEmployee(final String identifier) {
-    final EmployeeEntity employeeEntity = this.employeeRepository.findByIdentifier(identifier);
-    if (employeeEntity == null) {
-      throw ServiceException.notFound("Employee {0} not found.", identifier);
+    final List<EmployeeProjection> employeeProjections = employeeProjectionSlice.getContent();
+    if (withCursor && employeeProjectionSlice.hasNext() && !employeeProjections.isEmpty()) {
+      final EmployeeProjection last = employeeProjections.get(employeeProjections.size() - 1);
+      employeePage.setNextCursor(ContinuationToken.of(last.getIdentifier(), last.getId()).encode());
     }
 
-    final List<ContactDetailEntity> contactDetailEntities = this.contactDetailRepository.findByEmployeeOrderByPreferenceLevelAsc(employeeEntity);
-    if (contactDetailEntities != null && !contactDetailEntities.isEmpty()) {
-      return contactDetailEntities
-          .stream()
-          .map(ContactDetailMapper::map)
-          .collect(Collectors.toList());
+    employeePage.setEmployees(this.extractEmployees(employeeProjections, expansion));
+
+    return employeePage;
+  }
+
+  private List<Employee> extractEmployees(final List<EmployeeProjection> employeeProjections,
+                                          final Expansion expansion) {
+    final Map<Long, List<ContactDetail>> contactDetailsByEmployee = expansion.includes(Expansion.CONTACT_DETAILS)
+        ? this.findContactDetailsByEmployeeIds(
+            employeeProjections.stream().map(EmployeeProjection::getId).collect(Collectors.toList()))
+        : null;
+
+    final List<Employee> employees = new ArrayList<>(employeeProjections.size());
+    employeeProjections.forEach(employeeProjection -> {
+      final Employee employee = EmployeeMapper.map(employeeProjection);
+      employees.add(employee);
+
+      if (contactDetailsByEmployee != null) {
+        employee.setContactDetails(contactDetailsByEmployee.getOrDefault(employeeProjection.getId(), Collections.emptyList()));
+      }
+    });
+    return employees;
+  }
+
+  /**
+   * Same as {@link #findByCode(String, Predicate)}, contact details are only read if the check fails.
+   */
+  @Transactional(readOnly = true)
+  public Optional<Tagged<List<ContactDetail>>> findContactDetailsByEmployee(final String identifier,
+                                                                            final Predicate<String> notModified) {
+    return this.employeeRepository.findVersionByIdentifier(identifier).map(entityVersion -> {
+      if (notModified.test(entityVersion.toEntityTag())) {
+        return new Tagged<>(entityVersion.toEntityTag(), null);
+      }
+      return new Tagged<>(entityVersion.toEntityTag(),
+          this.findContactDetailsByEmployeeIds(Collections.singletonList(entityVersion.getId()))
+              .getOrDefault(entityVersion.getId(), Collections.emptyList()));
+    });
+  }
+
+  /**
+   * Loads the contact details of all given employees with a single query, grouped by employee id. Each list keeps
+   * the preference order.
+   */
+  private Map<Long, List<ContactDetail>> findContactDetailsByEmployeeIds(final List<Long> employeeIds) {
+    if (employeeIds.isEmpty()) {
+      return Collections.emptyMap();
     }
-    return Collections.emptyList();
+
+    return this.contactDetailRepository.findByEmployeeIdsOrderByPreferenceLevelAsc(employeeIds)
+        .stream()
+        .collect(Collectors.groupingBy(ContactDetailEntity::getEmployeeId,
+            Collectors.mapping(ContactDetailMapper::map, Collectors.toList())));
   }
 }
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.fineract.cn.lang.ServiceException;
+
+/**
+ * Fields of a listed office or employee that need an additional query to be filled. Without an explicit expansion
+ * all of them are included; {@link #NONE} leaves all of them out.
+ */
+public final class Expansion {
+
+  public static final String ADDRESS = "address";
+  public static final String EXTERNAL_REFERENCES = "externalReferences";
+  public static final String CONTACT_DETAILS = "contactDetails";
+  public static final String NONE = "none";
+
+  public static final Expansion ALL = new Expansion(null);
+
+  private static final Set<String> OFFICE_FIELDS =
+      Collections.unmodifiableSet(new HashSet<>(Arrays.asList(ADDRESS, EXTERNAL_REFERENCES)));
+  private static final Set<String> EMPLOYEE_FIELDS = Collections.singleton(CONTACT_DETAILS);
+
+  private final Set<String> fields;
+
+  private Expansion(final Set<String> fields) {
+    super();
+    this.fields = fields;
+  }
+
+  public static Expansion ofOffices(final String expand) {
+    return Expansion.parse(expand, OFFICE_FIELDS);
+  }
+
+  public static Expansion ofEmployees(final String expand) {
+    return Expansion.parse(expand, EMPLOYEE_FIELDS);
+  }
+
+  private static Expansion parse(final String expand, final Set<String> supportedFields) {
+    if (expand == null) {
+      return ALL;
+    }
+
+    final Set<String> fields = new HashSet<>();
+    for (final String field : expand.split(",")) {
+      final String trimmedField = field.trim();
+      if (trimmedField.isEmpty() || NONE.equals(trimmedField)) {
+        continue;
+      }
+      if (!supportedFields.contains(trimmedField)) {
+        throw ServiceException.badRequest("Field {0} can not be expanded.", trimmedField);
+      }
+      fields.add(trimmedField);
+    }
+    return new Expansion(fields);
+  }
+
+  public boolean includes(final String field) {
+    return this.fields == null || this.fields.contains(field);
+  }
+}
@@ -0,0 +1,372 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.service;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.apache.fineract.cn.office.internal.repository.EntityIdentifier;
+import org.apache.fineract.cn.office.internal.repository.EmployeeRepository;
+import org.apache.fineract.cn.office.internal.repository.OfficeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Resolves office and employee identifiers to their ids. Identifiers never change once assigned, so resolved ids
+ * are kept per tenant until the row is deleted, the entry is pushed out by newer ones, or it reaches its maximum
+ * age; the latter bounds how long a delete on another node goes unnoticed. Unknown identifiers are not cached.
+ *
+ * <p>In front of the database sits a per tenant bloom filter over all identifiers, built in the background after
+ * the first lookup for the tenant; until it is ready every lookup goes to the database. Identifiers the filter has
+ * never seen are answered as unknown without a query, but only while the filter was synced within the sync interval.
+ * Creates on this node are added right away. Creates on other nodes are picked up by creation time: a lookup that
+ * finds the filter out of sync syncs it without holding a lock, while concurrent lookups go to the database instead
+ * of waiting. Each sync reads back as far as the commit window, so rows that commit late are not skipped the way a
+ * sync by id would skip them. The filter is rebuilt in the background once it is saturated or older than the rebuild interval, which also
+ * drops deleted identifiers. All filter reads go to the primary.
+ */
+@Component
+public class IdentifierCache {
+
+  private final OfficeRepository officeRepository;
+  private final EmployeeRepository employeeRepository;
+  private final IdentifierFilterLoader identifierFilterLoader;
+  private final int maxSize;
+  private final long maxAge;
+  private final long syncInterval;
+  private final long rebuildInterval;
+  private final long commitWindow;
+  private final Map<String, TenantEntries> officeEntries;
+  private final Map<String, TenantEntries> employeeEntries;
+
+  @Autowired
+  public IdentifierCache(final OfficeRepository officeRepository,
+                         final EmployeeRepository employeeRepository,
+                         final IdentifierFilterLoader identifierFilterLoader,
+                         @Value("${office.identifierCache.maxSize:10000}") final int maxSize,
+                         @Value("${office.identifierCache.maxAge:60000}") final long maxAge,
+                         @Value("${office.identifierFilter.syncInterval:1000}") final long syncInterval,
+                         @Value("${office.identifierFilter.rebuildInterval:600000}") final long rebuildInterval,
+                         @Value("${office.identifierFilter.commitWindow:60000}") final long commitWindow) {
+    super();
+    this.officeRepository = officeRepository;
+    this.employeeRepository = employeeRepository;
+    this.identifierFilterLoader = identifierFilterLoader;
+    this.maxSize = maxSize;
+    this.maxAge = maxAge;
+    this.syncInterval = syncInterval;
+    this.rebuildInterval = rebuildInterval;
+    this.commitWindow = commitWindow;
+    this.officeEntries = new ConcurrentHashMap<>();
+    this.employeeEntries = new ConcurrentHashMap<>();
+  }
+
+  public Optional<Long> findOfficeId(final String identifier) {
+    return this.resolve("office", this.officeEntries, identifier, this.officeRepository::findIdByIdentifier,
+        this.officeRepository::findAllIdentifiers, this.officeRepository::findIdentifiersCreatedSince);
+  }
+
+  public Optional<Long> findEmployeeId(final String identifier) {
+    return this.resolve("employee", this.employeeEntries, identifier, this.employeeRepository::findIdByIdentifier,
+        this.employeeRepository::findAllIdentifiers, this.employeeRepository::findIdentifiersCreatedSince);
+  }
+
+  /**
+   * Makes a newly created office known to the filter. Called before the row is inserted, and once more after commit
+   * in case the filter was rebuilt in between.
+   */
+  public void addOffice(final String identifier) {
+    this.addAfterCommit(this.officeEntries, identifier);
+  }
+
+  public void addEmployee(final String identifier) {
+    this.addAfterCommit(this.employeeEntries, identifier);
+  }
+
+  /**
+   * Forgets the given office once the surrounding transaction commits. Entries are dropped by id, so every
+   * spelling the identifier was resolved with goes.
+   */
+  public void evictOfficeAfterCommit(final Long officeId) {
+    this.evictAfterCommit(this.officeEntries, officeId);
+  }
+
+  public void evictEmployeeAfterCommit(final Long employeeId) {
+    this.evictAfterCommit(this.employeeEntries, employeeId);
+  }
+
+  private Optional<Long> resolve(final String type,
+                                 final Map<String, TenantEntries> entriesByTenant,
+                                 final String identifier,
+                                 final Function<String, Optional<Long>> loader,
+                                 final Supplier<List<EntityIdentifier>> allIdentifiers,
+                                 final Function<Date, List<EntityIdentifier>> identifiersCreatedSince) {
+    if (identifier == null) {
+      return Optional.empty();
+    }
+
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    return LookupMemo.resolve(type + ":" + tenantIdentifier + ":" + identifier, () -> {
+      final TenantEntries tenantEntries = entriesByTenant.computeIfAbsent(tenantIdentifier,
+          key -> new TenantEntries(this.maxSize));
+      final Long cachedId = tenantEntries.get(identifier, this.maxAge);
+      if (cachedId != null) {
+        LookupMemo.countCacheHit();
+        return Optional.of(cachedId);
+      }
+      if (!this.mightContain(tenantIdentifier, tenantEntries.filter, identifier, allIdentifiers,
+          identifiersCreatedSince)) {
+        LookupMemo.countFilterHit();
+        return Optional.empty();
+      }
+
+      LookupMemo.countDatabaseHit();
+      final long generation = tenantEntries.generation.get();
+      final Optional<Long> id = loader.apply(identifier);
+      id.ifPresent(resolvedId -> tenantEntries.put(identifier, resolvedId, generation));
+      return id;
+    });
+  }
+
+  private boolean mightContain(final String tenantIdentifier,
+                               final TenantFilter filter,
+                               final String identifier,
+                               final Supplier<List<EntityIdentifier>> allIdentifiers,
+                               final Function<Date, List<EntityIdentifier>> identifiersCreatedSince) {
+    final String key = IdentifierFilter.key(identifier);
+    if (key == null) {
+      return true;
+    }
+
+    if (filter.startBuild(this.rebuildInterval)) {
+      final Date createdSince = new Date(System.currentTimeMillis() - this.commitWindow);
+      this.identifierFilterLoader.loadInBackground(tenantIdentifier, allIdentifiers,
+          identifiers -> filter.install(identifiers, createdSince), filter::buildFailed);
+    }
+    return filter.mightContain(key, this.syncInterval, this.commitWindow, createdSince ->
+        this.identifierFilterLoader.load(() -> identifiersCreatedSince.apply(createdSince)));
+  }
+
+  private void addAfterCommit(final Map<String, TenantEntries> entriesByTenant, final String identifier) {
+    final TenantEntries tenantEntries = entriesByTenant.computeIfAbsent(TenantContextHolder.checkedGetIdentifier(),
+        tenantIdentifier -> new TenantEntries(this.maxSize));
+    tenantEntries.filter.add(identifier);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        @Override
+        public void afterCommit() {
+          tenantEntries.filter.add(identifier);
+        }
+      });
+    }
+  }
+
+  private void evictAfterCommit(final Map<String, TenantEntries> entriesByTenant, final Long id) {
+    final TenantEntries tenantEntries = entriesByTenant.get(TenantContextHolder.checkedGetIdentifier());
+    if (tenantEntries == null) {
+      return;
+    }
+
+    tenantEntries.evict(id);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      // lookups running until the delete commits still see the row and may cache it again
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        @Override
+        public void afterCommit() {
+          tenantEntries.evict(id);
+        }
+      });
+    }
+  }
+
+  private static final class TenantEntries {
+
+    private final AtomicLong generation;
+    private final LinkedHashMap<String, Entry> entries;
+    private final TenantFilter filter;
+
+    private TenantEntries(final int maxSize) {
+      super();
+      this.generation = new AtomicLong();
+      this.filter = new TenantFilter();
+      this.entries = new LinkedHashMap<String, Entry>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+          return this.size() > maxSize;
+        }
+      };
+    }
+
+    private synchronized Long get(final String identifier, final long maxAge) {
+      final Entry entry = this.entries.get(identifier);
+      if (entry == null) {
+        return null;
+      }
+      if (System.currentTimeMillis() - entry.cachedOn > maxAge) {
+        this.entries.remove(identifier);
+        return null;
+      }
+      return entry.id;
+    }
+
+    /**
+     * Ids looked up while an eviction happened may belong to the deleted row and are dropped.
+     */
+    private synchronized void put(final String identifier, final Long id, final long expectedGeneration) {
+      if (this.generation.get() == expectedGeneration) {
+        this.entries.put(identifier, new Entry(id));
+      }
+    }
+
+    private synchronized void evict(final Long id) {
+      this.generation.incrementAndGet();
+      this.entries.values().removeIf(entry -> entry.id.equals(id));
+    }
+  }
+
+  private static final class TenantFilter {
+
+    private final AtomicBoolean syncing;
+    private volatile IdentifierFilter filter;
+    private volatile Date createdSince;
+    private volatile long syncedOn;
+    private long builtOn;
+    private boolean building;
+
+    private TenantFilter() {
+      super();
+      this.syncing = new AtomicBoolean();
+    }
+
+    /**
+     * Claims the build if there is no filter yet, or it is saturated or too old. The current filter stays in use
+     * while its replacement is built.
+     */
+    private synchronized boolean startBuild(final long rebuildInterval) {
+      if (this.building) {
+        return false;
+      }
+      if (this.filter != null && !this.filter.isSaturated()
+          && System.currentTimeMillis() - this.builtOn <= rebuildInterval) {
+        return false;
+      }
+      this.building = true;
+      return true;
+    }
+
+    /**
+     * Installs a filter over the given identifiers. Rows committed while they were read are caught by the first
+     * sync, which is due right away and reads back from the given time.
+     */
+    private void install(final List<EntityIdentifier> identifiers, final Date createdSince) {
+      final IdentifierFilter builtFilter = new IdentifierFilter(identifiers.size() * 2);
+      identifiers.forEach(entityIdentifier -> add(builtFilter, entityIdentifier.getIdentifier()));
+      synchronized (this) {
+        this.filter = builtFilter;
+        this.createdSince = createdSince;
+        this.builtOn = System.currentTimeMillis();
+        this.syncedOn = 0L;
+        this.building = false;
+      }
+    }
+
+    private synchronized void buildFailed() {
+      this.building = false;
+    }
+
+    /**
+     * Answers from the filter as it is. A negative answer from a filter that is out of sync only stands once this
+     * lookup synced it; while another lookup syncs, the database has to answer.
+     */
+    private boolean mightContain(final String key,
+                                 final long syncInterval,
+                                 final long commitWindow,
+                                 final Function<Date, List<EntityIdentifier>> identifiersCreatedSince) {
+      final IdentifierFilter currentFilter = this.filter;
+      if (currentFilter == null || currentFilter.mightContain(key)) {
+        return true;
+      }
+      if (System.currentTimeMillis() - this.syncedOn <= syncInterval) {
+        return false;
+      }
+      if (!this.syncing.compareAndSet(false, true)) {
+        return true;
+      }
+
+      try {
+        final long now = System.currentTimeMillis();
+        final IdentifierFilter syncedFilter;
+        final Date createdSince;
+        synchronized (this) {
+          syncedFilter = this.filter;
+          createdSince = this.createdSince;
+        }
+        identifiersCreatedSince.apply(createdSince)
+            .forEach(entityIdentifier -> add(syncedFilter, entityIdentifier.getIdentifier()));
+        synchronized (this) {
+          // a filter installed meanwhile was read later and has its own sync due
+          if (this.filter == syncedFilter) {
+            this.createdSince = new Date(now - commitWindow);
+            this.syncedOn = now;
+          }
+        }
+        return syncedFilter.mightContain(key);
+      } finally {
+        this.syncing.set(false);
+      }
+    }
+
+    private void add(final String identifier) {
+      final IdentifierFilter currentFilter = this.filter;
+      if (currentFilter != null) {
+        add(currentFilter, identifier);
+      }
+    }
+
+    private static void add(final IdentifierFilter filter, final String identifier) {
+      final String key = IdentifierFilter.key(identifier);
+      if (key != null) {
+        filter.add(key);
+      }
+    }
+  }
+
+  private static final class Entry {
+
+    private final Long id;
+    private final long cachedOn;
+
+    private Entry(final Long id) {
+      super();
+      this.id = id;
+      this.cachedOn = System.currentTimeMillis();
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over identifiers. It never misses an identifier that was added, but answers about one in a hundred
+ * unknown identifiers with a false positive, so a positive answer still has to be confirmed. Bits are set atomically,
+ * so lookups need no lock while identifiers are added.
+ */
+final class IdentifierFilter {
+
+  private static final int MIN_CAPACITY = 1024;
+  private static final int BITS_PER_ELEMENT = 10;
+  private static final int HASHES = 7;
+
+  private final int capacity;
+  private final int size;
+  private final AtomicLongArray words;
+  private final AtomicInteger count;
+
+  IdentifierFilter(final int expectedElements) {
+    super();
+    this.capacity = Math.max(expectedElements, MIN_CAPACITY);
+    this.size = this.capacity * BITS_PER_ELEMENT;
+    this.words = new AtomicLongArray((this.size + Long.SIZE - 1) / Long.SIZE);
+    this.count = new AtomicInteger();
+  }
+
+  void add(final String key) {
+    final long hash = hash(key);
+    for (int i = 0; i < HASHES; i++) {
+      final int index = this.index(hash, i);
+      this.words.accumulateAndGet(index / Long.SIZE, 1L << index, (word, bit) -> word | bit);
+    }
+    this.count.incrementAndGet();
+  }
+
+  boolean mightContain(final String key) {
+    final long hash = hash(key);
+    for (int i = 0; i < HASHES; i++) {
+      final int index = this.index(hash, i);
+      if ((this.words.get(index / Long.SIZE) & (1L << index)) == 0L) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Beyond its capacity the false positive rate climbs quickly and the filter should be rebuilt larger.
+   */
+  boolean isSaturated() {
+    return this.count.get() > this.capacity;
+  }
+
+  /**
+   * Folds an identifier the way the case insensitive column collation compares it. Identifiers with characters
+   * outside ASCII are not folded and yield null; they have to be looked up directly.
+   */
+  static String key(final String identifier) {
+    int end = identifier.length();
+    while (end > 0 && identifier.charAt(end - 1) == ' ') {
+      end--;
+    }
+    final char[] key = new char[end];
+    for (int i = 0; i < end; i++) {
+      final char c = identifier.charAt(i);
+      if (c > 0x7F) {
+        return null;
+      }
+      key[i] = c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+    return new String(key);
+  }
+
+  /**
+   * Matches rows found by identifier with the identifiers they were requested with, which may differ in case.
+   */
+  static String matchKey(final String identifier) {
+    final String key = IdentifierFilter.key(identifier);
+    return key != null ? key : identifier;
+  }
+
+  private int index(final long hash, final int i) {
+    final int combined = (int) hash + i * (int) (hash >>> 32);
+    return (combined & Integer.MAX_VALUE) % this.size;
+  }
+
+  private static long hash(final String key) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      hash ^= key.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
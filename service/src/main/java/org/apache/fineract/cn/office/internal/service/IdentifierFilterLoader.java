@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.apache.fineract.cn.office.ServiceConstants;
+import org.apache.fineract.cn.office.internal.repository.EntityIdentifier;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Reads identifiers for the filters of {@link IdentifierCache}. Filters outlive the request that reads them, so
+ * identifiers are always read from the primary and never from a replica, and full reads happen in the background
+ * instead of holding up a lookup.
+ */
+@Component
+public class IdentifierFilterLoader {
+
+  private final Logger logger;
+  private final TransactionTemplate primaryTransactionTemplate;
+
+  @Autowired
+  public IdentifierFilterLoader(@Qualifier(ServiceConstants.SERVICE_LOGGER_NAME) final Logger logger,
+                                final PlatformTransactionManager transactionManager) {
+    super();
+    this.logger = logger;
+    this.primaryTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.primaryTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+  }
+
+  public List<EntityIdentifier> load(final Supplier<List<EntityIdentifier>> loader) {
+    return this.primaryTransactionTemplate.execute(status -> loader.get());
+  }
+
+  /**
+   * Hands the loaded identifiers to the given consumer, or runs the failure callback if they could not be read.
+   */
+  @Async
+  public void loadInBackground(final String tenantIdentifier,
+                               final Supplier<List<EntityIdentifier>> loader,
+                               final Consumer<List<EntityIdentifier>> onLoaded,
+                               final Runnable onFailure) {
+    final Optional<String> previousTenantIdentifier = TenantContextHolder.identifier();
+    TenantContextHolder.setIdentifier(tenantIdentifier);
+    try {
+      onLoaded.accept(this.load(loader));
+    } catch (final RuntimeException ex) {
+      this.logger.warn("Could not build identifier filter for tenant {}.", tenantIdentifier, ex);
+      onFailure.run();
+    } finally {
+      if (previousTenantIdentifier.isPresent()) {
+        TenantContextHolder.setIdentifier(previousTenantIdentifier.get());
+      } else {
+        TenantContextHolder.clear();
+      }
+    }
+  }
+}
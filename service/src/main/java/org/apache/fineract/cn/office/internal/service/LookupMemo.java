@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Identifier lookups made while handling one request. Controller checks, services and anything else running on the
+ * request thread resolve each identifier once per request and keep seeing the same answer, even if the identifier
+ * cache drops the entry halfway through. Commands are handled on another thread and rely on the identifier cache
+ * alone.
+ */
+public final class LookupMemo {
+
+  private static final ThreadLocal<LookupMemo> CURRENT = new ThreadLocal<>();
+
+  private final Map<String, Optional<Long>> ids;
+  private int memoHits;
+  private int cacheHits;
+  private int filterHits;
+  private int databaseHits;
+
+  private LookupMemo() {
+    super();
+    this.ids = new HashMap<>();
+  }
+
+  public static void begin() {
+    CURRENT.set(new LookupMemo());
+  }
+
+  public static Optional<LookupMemo> end() {
+    final LookupMemo lookupMemo = CURRENT.get();
+    CURRENT.remove();
+    return Optional.ofNullable(lookupMemo);
+  }
+
+  static Optional<Long> resolve(final String key, final Supplier<Optional<Long>> resolver) {
+    final LookupMemo lookupMemo = CURRENT.get();
+    if (lookupMemo == null) {
+      return resolver.get();
+    }
+
+    final Optional<Long> memoized = lookupMemo.ids.get(key);
+    if (memoized != null) {
+      lookupMemo.memoHits++;
+      return memoized;
+    }
+    final Optional<Long> id = resolver.get();
+    lookupMemo.ids.put(key, id);
+    return id;
+  }
+
+  static void countCacheHit() {
+    final LookupMemo lookupMemo = CURRENT.get();
+    if (lookupMemo != null) {
+      lookupMemo.cacheHits++;
+    }
+  }
+
+  static void countFilterHit() {
+    final LookupMemo lookupMemo = CURRENT.get();
+    if (lookupMemo != null) {
+      lookupMemo.filterHits++;
+    }
+  }
+
+  static void countDatabaseHit() {
+    final LookupMemo lookupMemo = CURRENT.get();
+    if (lookupMemo != null) {
+      lookupMemo.databaseHits++;
+    }
+  }
+
+  public int getLookups() {
+    return this.memoHits + this.cacheHits + this.filterHits + this.databaseHits;
+  }
+
+  public int getMemoHits() {
+    return this.memoHits;
+  }
+
+  public int getCacheHits() {
+    return this.cacheHits;
+  }
+
+  public int getFilterHits() {
+    return this.filterHits;
+  }
+
+  public int getDatabaseHits() {
+    return this.databaseHits;
+  }
+}
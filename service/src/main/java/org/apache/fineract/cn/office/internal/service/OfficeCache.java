@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.apache.fineract.cn.office.ServiceConstants;
+import org.apache.fineract.cn.office.api.v1.domain.Office;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps fully assembled offices per tenant, so single office reads neither query the database nor wait for a
+ * snapshot to be rebuilt after an unrelated office changed. Aggregates evict every office whose representation a
+ * command changes once the command commits; the maximum age bounds how long changes made on other nodes go
+ * unnoticed. Every entry keeps the entity tag read together with the office, and every returned {@link Office} is a
+ * fresh copy. Hit, miss and eviction counts of the tenant are logged whenever an office has to be assembled.
+ */
+@Component
+public class OfficeCache {
+
+  private final Logger logger;
+  private final int maxSize;
+  private final long maxAge;
+  private final Map<String, TenantEntries> entries;
+
+  @Autowired
+  public OfficeCache(@Qualifier(ServiceConstants.SERVICE_LOGGER_NAME) final Logger logger,
+                     @Value("${office.officeCache.maxSize:10000}") final int maxSize,
+                     @Value("${office.officeCache.maxAge:60000}") final long maxAge) {
+    super();
+    this.logger = logger;
+    this.maxSize = maxSize;
+    this.maxAge = maxAge;
+    this.entries = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns the cached office or assembles it with the given loader, which yields the office together with its id
+   * and entity tag.
+   */
+  public Optional<Tagged<Office>> get(final String identifier,
+                                      final Function<String, Optional<AssembledOffice>> loader) {
+    final TenantEntries tenantEntries = this.tenantEntries();
+    final Entry cachedEntry = tenantEntries.get(identifier, this.maxAge);
+    if (cachedEntry != null) {
+      tenantEntries.statistics.recordHit();
+      return Optional.of(new Tagged<>(cachedEntry.entityTag, copy(cachedEntry.office)));
+    }
+
+    tenantEntries.statistics.recordMiss();
+    final long generation = tenantEntries.generation.get();
+    final Optional<AssembledOffice> assembledOffice = loader.apply(identifier);
+    assembledOffice.ifPresent(loaded ->
+        tenantEntries.put(identifier, new Entry(loaded.officeId, loaded.entityTag, loaded.office), generation));
+    this.logger.debug("Assembled office {} for tenant {}; {}.", identifier, TenantContextHolder.checkedGetIdentifier(),
+        tenantEntries.statistics);
+    return assembledOffice.map(loaded -> new Tagged<>(loaded.entityTag, copy(loaded.office)));
+  }
+
+  /**
+   * Drops the given office now and once more after the surrounding transaction commits, since reads running until
+   * then still see the old state and may cache it again.
+   */
+  public void evictAfterCommit(final Long officeId) {
+    if (officeId == null) {
+      return;
+    }
+
+    final TenantEntries tenantEntries = this.tenantEntries();
+    tenantEntries.evict(officeId);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        @Override
+        public void afterCommit() {
+          tenantEntries.evict(officeId);
+        }
+      });
+    }
+  }
+
+  public void clearAfterCommit() {
+    final TenantEntries tenantEntries = this.tenantEntries();
+    tenantEntries.clear();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        @Override
+        public void afterCommit() {
+          tenantEntries.clear();
+        }
+      });
+    }
+  }
+
+  private TenantEntries tenantEntries() {
+    return this.entries.computeIfAbsent(TenantContextHolder.checkedGetIdentifier(),
+        tenantIdentifier -> new TenantEntries(this.maxSize));
+  }
+
+  private static Office copy(final Office office) {
+    final Office copy = new Office();
+    copy.setIdentifier(office.getIdentifier());
+    copy.setParentIdentifier(office.getParentIdentifier());
+    copy.setName(office.getName());
+    copy.setDescription(office.getDescription());
+    copy.setExternalReferences(office.getExternalReferences());
+    if (office.getAddress() != null) {
+      copy.setAddress(OfficeSnapshot.copy(office.getAddress()));
+    }
+    return copy;
+  }
+
+  public static final class AssembledOffice {
+
+    private final Long officeId;
+    private final String entityTag;
+    private final Office office;
+
+    public AssembledOffice(final Long officeId, final String entityTag, final Office office) {
+      super();
+      this.officeId = officeId;
+      this.entityTag = entityTag;
+      this.office = office;
+    }
+  }
+
+  private static final class TenantEntries {
+
+    private final AtomicLong generation;
+    private final CacheStatistics statistics;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private TenantEntries(final int maxSize) {
+      super();
+      this.generation = new AtomicLong();
+      this.statistics = new CacheStatistics();
+      this.entries = new LinkedHashMap<String, Entry>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+          if (this.size() > maxSize) {
+            TenantEntries.this.statistics.recordEviction();
+            return true;
+          }
+          return false;
+        }
+      };
+    }
+
+    private synchronized Entry get(final String identifier, final long maxAge) {
+      final Entry entry = this.entries.get(identifier);
+      if (entry == null) {
+        return null;
+      }
+      if (System.currentTimeMillis() - entry.cachedOn > maxAge) {
+        this.entries.remove(identifier);
+        this.statistics.recordEviction();
+        return null;
+      }
+      return entry;
+    }
+
+    /**
+     * Offices assembled while an eviction happened may show the state before the change and are dropped.
+     */
+    private synchronized void put(final String identifier, final Entry entry, final long expectedGeneration) {
+      if (this.generation.get() == expectedGeneration) {
+        this.entries.put(identifier, entry);
+      }
+    }
+
+    private synchronized void evict(final Long officeId) {
+      this.generation.incrementAndGet();
+      final Iterator<Entry> iterator = this.entries.values().iterator();
+      while (iterator.hasNext()) {
+        if (iterator.next().officeId.equals(officeId)) {
+          iterator.remove();
+          this.statistics.recordEviction();
+        }
+      }
+    }
+
+    private synchronized void clear() {
+      this.generation.incrementAndGet();
+      this.statistics.recordEvictions(this.entries.size());
+      this.entries.clear();
+    }
+  }
+
+  private static final class Entry {
+
+    private final Long officeId;
+    private final String entityTag;
+    private final Office office;
+    private final long cachedOn;
+
+    private Entry(final Long officeId, final String entityTag, final Office office) {
+      super();
+      this.officeId = officeId;
+      this.entityTag = entityTag;
+      this.office = office;
+      this.cachedOn = System.currentTimeMillis();
+    }
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.service;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Whether an office exists and what, if anything, keeps it from being deleted.
+ */
+public final class OfficeDeletability {
+
+  public enum Reason {
+    NOT_FOUND,
+    HAS_BRANCHES,
+    HAS_EMPLOYEES,
+    HAS_EXTERNAL_REFERENCES
+  }
+
+  private final Set<Reason> reasons;
+
+  OfficeDeletability(final Set<Reason> reasons) {
+    super();
+    this.reasons = reasons;
+  }
+
+  static OfficeDeletability notFound() {
+    return new OfficeDeletability(EnumSet.of(Reason.NOT_FOUND));
+  }
+
+  public boolean isDeletable() {
+    return this.reasons.isEmpty();
+  }
+
+  public boolean hasReason(final Reason reason) {
+    return this.reasons.contains(reason);
+  }
+
+  public Set<Reason> getReasons() {
+    return this.reasons;
+  }
+}
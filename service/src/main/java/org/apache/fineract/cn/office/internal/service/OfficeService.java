@@ -19,8 +19,17 @@
 package org.apache.fineract.cn.office.internal.service;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.apache.fineract.cn.lang.ServiceException;
 import org.apache.fineract.cn.office.ServiceConstants;
 import org.apache.fineract.cn.office.api.v1.domain.Address;
@@ -31,15 +40,20 @@ import org.apache.fineract.cn.office.internal.mapper.AddressMapper;
 import org.apache.fineract.cn.office.internal.mapper.OfficeMapper;
 import org.apache.fineract.cn.office.internal.repository.AddressEntity;
 import org.apache.fineract.cn.office.internal.repository.AddressRepository;
-import org.apache.fineract.cn.office.internal.repository.EmployeeRepository;
-import org.apache.fineract.cn.office.internal.repository.ExternalReferenceRepository;
-import org.apache.fineract.cn.office.internal.repository.OfficeEntity;
+import org.apache.fineract.cn.office.internal.repository.OfficeProjection;
 import org.apache.fineract.cn.office.internal.repository.OfficeRepository;
+import org.apache.fineract.cn.office.internal.repository.SearchText;
+import org.apache.fineract.cn.office.internal.repository.TrigramIndex;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -49,134 +63,386 @@ public class OfficeService {
   private final Logger logger;
   private final OfficeRepository officeRepository;
   private final AddressRepository addressRepository;
-  private final EmployeeRepository employeeRepository;
-  private final ExternalReferenceRepository externalReferenceRepository;
+  private final OfficeSnapshotHolder officeSnapshotHolder;
+  private final IdentifierCache identifierCache;
+  private final OfficeCache officeCache;
 
   @Autowired
   public OfficeService(@Qualifier(ServiceConstants.SERVICE_LOGGER_NAME) final Logger logger,
                        final OfficeRepository officeRepository,
                        final AddressRepository addressRepository,
-                       final EmployeeRepository employeeRepository,
-                       final ExternalReferenceRepository externalReferenceRepository) {
+                       final OfficeSnapshotHolder officeSnapshotHolder,
+                       final IdentifierCache identifierCache,
+                       final OfficeCache officeCache) {
     super();
     this.logger = logger;
     this.officeRepository = officeRepository;
     this.addressRepository = addressRepository;
-    this.employeeRepository = employeeRepository;
-    this.externalReferenceRepository = externalReferenceRepository;
+    this.officeSnapshotHolder = officeSnapshotHolder;
+    this.identifierCache = identifierCache;
+    this.officeCache = officeCache;
   }
 
   public boolean officeExists(final String identifier) {
-    return this.officeRepository.existsByIdentifier(identifier);
+    return this.identifierCache.findOfficeId(identifier).isPresent();
   }
 
-  public boolean branchExists(final String identifier) {
-    final Optional<OfficeEntity> officeEntityOptional = this.officeRepository.findByIdentifier(identifier);
-    return officeEntityOptional.map(officeEntity -> this.officeRepository.existsByParentOfficeId(officeEntity.getId())).orElse(false);
-  }
+  public OfficeDeletability checkDeletability(final String identifier) {
+    final List<Object[]> dependents =
+        this.officeRepository.findDependents(identifier, ExternalReference.State.ACTIVE.name());
+    if (dependents.isEmpty()) {
+      return OfficeDeletability.notFound();
+    }
 
-  public boolean hasEmployees(final String officeIdentifier){
-    return this.officeRepository.findByIdentifier(officeIdentifier)
-            .map(this.employeeRepository::existsByAssignedOffice)
-            .orElse(false);
+    final Object[] flags = dependents.get(0);
+    final EnumSet<OfficeDeletability.Reason> reasons = EnumSet.noneOf(OfficeDeletability.Reason.class);
+    if (isSet(flags[0])) {
+      reasons.add(OfficeDeletability.Reason.HAS_BRANCHES);
+    }
+    if (isSet(flags[1])) {
+      reasons.add(OfficeDeletability.Reason.HAS_EMPLOYEES);
+    }
+    if (isSet(flags[2])) {
+      reasons.add(OfficeDeletability.Reason.HAS_EXTERNAL_REFERENCES);
+    }
+    return new OfficeDeletability(reasons);
   }
 
   @Transactional(readOnly = true)
-  public OfficePage fetchOffices(final String term, final Pageable pageRequest) {
-    final Page<OfficeEntity> officeEntityPage;
-    if (term != null) {
-      officeEntityPage = this.officeRepository.findByIdentifierContainingOrNameContaining(term, term, pageRequest);
+  public OfficePage fetchOffices(final String term, final Pageable pageRequest, final boolean withTotals,
+                                 final Expansion expansion) {
+    if (term == null) {
+      final OfficeSnapshot officeSnapshot = this.officeSnapshotHolder.current();
+      final Optional<OfficePage> officePage =
+          this.createOfficePage(officeSnapshot, officeSnapshot.getRootOffices(), pageRequest, withTotals, expansion);
+      if (officePage.isPresent()) {
+        return officePage.get();
+      }
+    }
+
+    final Slice<OfficeProjection> officeProjectionSlice;
+    if (TrigramIndex.isSearchable(term)) {
+      final String leadingTrigram = TrigramIndex.leadingTrigram(term);
+      final String trailingTrigram = TrigramIndex.trailingTrigram(term);
+      officeProjectionSlice = withTotals
+          ? this.officeRepository.findProjectionsByTrigrams(term, leadingTrigram, trailingTrigram, pageRequest)
+          : this.officeRepository.findProjectionSliceByTrigrams(term, leadingTrigram, trailingTrigram, pageRequest);
+    } else if (TrigramIndex.isPrefixSearchable(term)) {
+      final String prefix = SearchText.normalize(term);
+      officeProjectionSlice = withTotals
+          ? this.officeRepository.findProjectionsByTrigramPrefix(term, prefix, pageRequest)
+          : this.officeRepository.findProjectionSliceByTrigramPrefix(term, prefix, pageRequest);
+    } else if (term != null) {
+      officeProjectionSlice = withTotals
+          ? this.officeRepository.findProjectionsByTerm(term, pageRequest)
+          : this.officeRepository.findProjectionSliceByTerm(term, pageRequest);
     } else {
-      officeEntityPage = this.officeRepository.findByParentOfficeIdIsNull(pageRequest);
+      officeProjectionSlice = withTotals
+          ? this.officeRepository.findRootProjections(pageRequest)
+          : this.officeRepository.findRootProjectionSlice(pageRequest);
     }
 
-    final OfficePage officePage = new OfficePage();
-    officePage.setTotalPages(officeEntityPage.getTotalPages());
-    officePage.setTotalElements(officeEntityPage.getTotalElements());
-    officePage.setOffices(this.extractOfficeEntities(officeEntityPage, null));
+    return this.createOfficePage(officeProjectionSlice, ContinuationToken.supports(pageRequest),
+        officeProjections -> this.extractOffices(officeProjections, expansion));
+  }
 
-    return officePage;
+  @Transactional(readOnly = true)
+  public OfficePage fetchOfficesAfter(final String term, final String cursor, final Integer size,
+                                      final Expansion expansion) {
+    final ContinuationToken continuationToken = ContinuationToken.decode(cursor);
+    final Pageable pageRequest = new PageRequest(0, size);
+    final Slice<OfficeProjection> officeProjectionSlice;
+    if (TrigramIndex.isSearchable(term)) {
+      final String leadingTrigram = TrigramIndex.leadingTrigram(term);
+      final String trailingTrigram = TrigramIndex.trailingTrigram(term);
+      officeProjectionSlice = this.officeRepository.findProjectionsByTrigramsAfter(term, leadingTrigram,
+          trailingTrigram, continuationToken.getIdentifier(), continuationToken.getId(), pageRequest);
+    } else if (TrigramIndex.isPrefixSearchable(term)) {
+      officeProjectionSlice = this.officeRepository.findProjectionsByTrigramPrefixAfter(term,
+          SearchText.normalize(term), continuationToken.getIdentifier(), continuationToken.getId(), pageRequest);
+    } else if (term != null) {
+      officeProjectionSlice = this.officeRepository.findProjectionsByTermAfter(term,
+          continuationToken.getIdentifier(), continuationToken.getId(), pageRequest);
+    } else {
+      officeProjectionSlice = this.officeRepository.findRootProjectionsAfter(
+          continuationToken.getIdentifier(), continuationToken.getId(), pageRequest);
+    }
+
+    return this.createOfficePage(officeProjectionSlice, true,
+        officeProjections -> this.extractOffices(officeProjections, expansion));
   }
 
-  public Optional<Office> findOfficeByIdentifier(final String identifier) {
-    final Optional<OfficeEntity> officeEntityOptional = this.officeRepository.findByIdentifier(identifier);
+  @Transactional(readOnly = true)
+  public OfficePage fetchOfficesByAddress(final String countryCode, final String city, final String region,
+                                          final Pageable pageRequest, final boolean withTotals,
+                                          final Expansion expansion) {
+    final Slice<OfficeProjection> officeProjectionSlice = withTotals
+        ? this.officeRepository.findProjectionsByAddress(countryCode, city, region, pageRequest)
+        : this.officeRepository.findProjectionSliceByAddress(countryCode, city, region, pageRequest);
 
-    if (officeEntityOptional.isPresent()) {
-      final Optional<Office> officeOptional = officeEntityOptional.map(OfficeMapper::map);
+    return this.createOfficePage(officeProjectionSlice, ContinuationToken.supports(pageRequest),
+        officeProjections -> this.extractOffices(officeProjections, expansion));
+  }
 
-      officeOptional.ifPresent(office -> {
-        final Long parentOfficeId = officeEntityOptional.get().getParentOfficeId();
-        if(parentOfficeId != null) {
-          final OfficeEntity parentEntity = this.officeRepository.getOne(parentOfficeId);
-          office.setParentIdentifier(parentEntity.getIdentifier());
-        }
+  @Transactional(readOnly = true)
+  public OfficePage fetchOfficesByAddressAfter(final String countryCode, final String city, final String region,
+                                               final String cursor, final Integer size,
+                                               final Expansion expansion) {
+    final ContinuationToken continuationToken = ContinuationToken.decode(cursor);
+    final Slice<OfficeProjection> officeProjectionSlice = this.officeRepository.findProjectionsByAddressAfter(
+        countryCode, city, region, continuationToken.getIdentifier(), continuationToken.getId(),
+        new PageRequest(0, size));
 
-        final Optional<AddressEntity> addressEntityOptional = this.addressRepository.findByOffice(officeEntityOptional.get());
-        addressEntityOptional.ifPresent(addressEntity -> office.setAddress(AddressMapper.map(addressEntity)));
+    return this.createOfficePage(officeProjectionSlice, true,
+        officeProjections -> this.extractOffices(officeProjections, expansion));
+  }
 
-        office.setExternalReferences(
-            this.branchExists(office.getIdentifier())
-                || this.hasEmployees(office.getIdentifier())
-                || this.hasExternalReferences(office.getIdentifier())
-        );
-      });
+  @Transactional(readOnly = true)
+  public Optional<Tagged<Office>> findOfficeByIdentifier(final String identifier) {
+    return this.officeCache.get(identifier, this::assembleOffice);
+  }
 
-      return officeOptional;
+  /**
+   * Resolves the given offices in the order given and skips unknown identifiers. Offices held by the snapshot are
+   * served from it, all others are loaded with a single query.
+   */
+  @Transactional(readOnly = true)
+  public List<Office> findOfficesByIdentifiers(final Collection<String> identifiers, final Expansion expansion) {
+    final OfficeSnapshot officeSnapshot = this.officeSnapshotHolder.current();
+    final Map<String, Office> officesByIdentifier = new HashMap<>(identifiers.size());
+    final List<String> missingIdentifiers = new ArrayList<>();
+    identifiers.forEach(identifier -> {
+      final Optional<OfficeProjection> snapshotProjection = officeSnapshot.findOffice(identifier);
+      if (snapshotProjection.isPresent()) {
+        officesByIdentifier.put(IdentifierFilter.matchKey(identifier),
+            officeSnapshot.toOffice(snapshotProjection.get(), expansion));
+      } else {
+        missingIdentifiers.add(identifier);
+      }
+    });
+
+    if (!missingIdentifiers.isEmpty()) {
+      this.extractOffices(this.officeRepository.findProjectionsByIdentifiers(missingIdentifiers), expansion)
+          .forEach(office -> officesByIdentifier.put(IdentifierFilter.matchKey(office.getIdentifier()), office));
     }
-    return Optional.empty();
+
+    return identifiers.stream()
+        .map(identifier -> officesByIdentifier.get(IdentifierFilter.matchKey(identifier)))
+        .filter(Objects::nonNull)
+        .collect(Collectors.toList());
   }
 
-  public Optional<Address> findAddressOfOffice(final String identifier) {
-    final Optional<OfficeEntity> officeEntityOptional = this.officeRepository.findByIdentifier(identifier);
+  /**
+   * Yields nothing for unknown offices and a tagged null value for offices without address.
+   */
+  @Transactional(readOnly = true)
+  public Optional<Tagged<Address>> findAddressOfOffice(final String identifier) {
+    final OfficeSnapshot officeSnapshot = this.officeSnapshotHolder.current();
+    final Optional<OfficeProjection> snapshotProjection = officeSnapshot.findOffice(identifier);
+    if (snapshotProjection.isPresent()) {
+      return snapshotProjection.map(officeProjection ->
+          new Tagged<>(officeProjection.getEntityTag(), officeSnapshot.findAddress(officeProjection).orElse(null)));
+    }
+
+    return this.officeRepository.findVersionByIdentifier(identifier).map(entityVersion ->
+        new Tagged<>(entityVersion.toEntityTag(),
+            this.addressRepository.findByOfficeIds(Collections.singletonList(entityVersion.getId()))
+                .stream()
+                .findFirst()
+                .map(AddressMapper::map)
+                .orElse(null)));
+  }
 
-    if (!officeEntityOptional.isPresent()) {
-      throw ServiceException.notFound("Office {0} not found.", identifier);
+  @Transactional(readOnly = true)
+  public OfficePage fetchBranches(final String parentIdentifier, final Pageable pageRequest, final boolean withTotals,
+                                  final Expansion expansion) {
+    final OfficeSnapshot officeSnapshot = this.officeSnapshotHolder.current();
+    if (officeSnapshot.findOffice(parentIdentifier).isPresent()) {
+      final Optional<OfficePage> officePage =
+          this.createOfficePage(officeSnapshot, officeSnapshot.getBranches(parentIdentifier), pageRequest, withTotals,
+              expansion);
+      if (officePage.isPresent()) {
+        return officePage.get();
+      }
     }
 
-    final Optional<AddressEntity> addressEntityOptional = this.addressRepository.findByOffice(officeEntityOptional.get());
+    final Long parentOfficeId = this.identifierCache.findOfficeId(parentIdentifier)
+        .orElseThrow(() -> ServiceException.notFound("Parent office {0} not found!", parentIdentifier));
 
-    return addressEntityOptional.map(AddressMapper::map);
+    final Slice<OfficeProjection> officeProjectionSlice = withTotals
+        ? this.officeRepository.findProjectionsByParentOfficeId(parentOfficeId, pageRequest)
+        : this.officeRepository.findProjectionSliceByParentOfficeId(parentOfficeId, pageRequest);
+
+    return this.createOfficePage(officeProjectionSlice, ContinuationToken.supports(pageRequest),
+        officeProjections -> this.extractOffices(officeProjections, expansion));
   }
 
   @Transactional(readOnly = true)
-  public OfficePage fetchBranches(final String parentIdentifier, final Pageable pageRequest) {
-    final OfficeEntity parentOfficeEntity = this.officeRepository.findByIdentifier(parentIdentifier)
+  public OfficePage fetchBranchesAfter(final String parentIdentifier, final String cursor, final Integer size,
+                                       final Expansion expansion) {
+    final ContinuationToken continuationToken = ContinuationToken.decode(cursor);
+    final Long parentOfficeId = this.identifierCache.findOfficeId(parentIdentifier)
         .orElseThrow(() -> ServiceException.notFound("Parent office {0} not found!", parentIdentifier));
 
-    final Page<OfficeEntity> officeEntityPage = this.officeRepository.findByParentOfficeId(parentOfficeEntity.getId(), pageRequest);
+    final Slice<OfficeProjection> officeProjectionSlice = this.officeRepository.findProjectionsByParentOfficeIdAfter(
+        parentOfficeId, continuationToken.getIdentifier(), continuationToken.getId(), new PageRequest(0, size));
+
+    return this.createOfficePage(officeProjectionSlice, true,
+        officeProjections -> this.extractOffices(officeProjections, expansion));
+  }
+
+  @Transactional(readOnly = true)
+  public OfficePage fetchDescendants(final String identifier, final Pageable pageRequest) {
+    final Long officeId = this.identifierCache.findOfficeId(identifier)
+        .orElseThrow(() -> ServiceException.notFound("Office {0} not found.", identifier));
+
+    return this.createOfficePage(this.officeRepository.findDescendantProjections(officeId, pageRequest), false,
+        officeProjections -> this.extractOffices(officeProjections, Expansion.ALL));
+  }
+
+  @Transactional(readOnly = true)
+  public List<Office> findAncestors(final String identifier) {
+    final Long officeId = this.identifierCache.findOfficeId(identifier)
+        .orElseThrow(() -> ServiceException.notFound("Office {0} not found.", identifier));
+
+    return this.extractOffices(this.officeRepository.findAncestorProjections(officeId), Expansion.ALL);
+  }
+
+  /**
+   * Builds the office for the office cache, from the snapshot when it holds the office, otherwise from the database.
+   */
+  private Optional<OfficeCache.AssembledOffice> assembleOffice(final String identifier) {
+    final OfficeSnapshot officeSnapshot = this.officeSnapshotHolder.current();
+    final Optional<OfficeProjection> snapshotProjection = officeSnapshot.findOffice(identifier);
+    if (snapshotProjection.isPresent()) {
+      return snapshotProjection.map(officeProjection ->
+          new OfficeCache.AssembledOffice(officeProjection.getId(), officeProjection.getEntityTag(),
+              officeSnapshot.toOffice(officeProjection)));
+    }
+
+    return this.officeRepository.findProjectionByIdentifier(identifier)
+        .map(officeProjection -> new OfficeCache.AssembledOffice(officeProjection.getId(),
+            officeProjection.getEntityTag(),
+            this.extractOffices(Collections.singletonList(officeProjection), Expansion.ALL).get(0)));
+  }
+
+  /**
+   * Pages the given snapshot offices in memory. Only the identifier order, ascending or descending, is served; any
+   * other sort yields an empty result so the caller falls back to the database.
+   */
+  private Optional<OfficePage> createOfficePage(final OfficeSnapshot officeSnapshot,
+                                                final List<OfficeProjection> officeProjections,
+                                                final Pageable pageRequest,
+                                                final boolean withTotals,
+                                                final Expansion expansion) {
+    final Optional<Sort.Direction> direction = OfficeService.snapshotDirection(pageRequest.getSort());
+    if (!direction.isPresent()) {
+      return Optional.empty();
+    }
+
+    final List<OfficeProjection> sortedProjections;
+    if (direction.get().isAscending()) {
+      sortedProjections = officeProjections;
+    } else {
+      sortedProjections = new ArrayList<>(officeProjections);
+      Collections.reverse(sortedProjections);
+    }
+
+    final int fromIndex = Math.min(pageRequest.getOffset(), sortedProjections.size());
+    final int toIndex = Math.min(fromIndex + pageRequest.getPageSize(), sortedProjections.size());
+    final List<OfficeProjection> content = sortedProjections.subList(fromIndex, toIndex);
+    final Slice<OfficeProjection> officeProjectionSlice = withTotals
+        ? new PageImpl<>(content, pageRequest, sortedProjections.size())
+        : new SliceImpl<>(content, pageRequest, toIndex < sortedProjections.size());
+
+    return Optional.of(this.createOfficePage(officeProjectionSlice, ContinuationToken.supports(pageRequest),
+        projections -> projections.stream()
+            .map(officeProjection -> officeSnapshot.toOffice(officeProjection, expansion))
+            .collect(Collectors.toList())));
+  }
+
+  /**
+   * The snapshot only knows the database order by identifier, any other sort has to be served by the database.
+   */
+  private static Optional<Sort.Direction> snapshotDirection(final Sort sort) {
+    if (sort == null) {
+      return Optional.of(Sort.Direction.ASC);
+    }
+    final Iterator<Sort.Order> orders = sort.iterator();
+    if (!orders.hasNext()) {
+      return Optional.of(Sort.Direction.ASC);
+    }
+    final Sort.Order order = orders.next();
+    if (orders.hasNext() || !"identifier".equals(order.getProperty())) {
+      return Optional.empty();
+    }
+    return Optional.of(order.getDirection());
+  }
+
+  /**
+   * Totals are only reported for pages that were counted; slices just tell whether more offices follow.
+   */
+  private OfficePage createOfficePage(final Slice<OfficeProjection> officeProjectionSlice,
+                                      final boolean withCursor,
+                                      final Function<List<OfficeProjection>, List<Office>> officeMapper) {
     final OfficePage officePage = new OfficePage();
-    officePage.setTotalPages(officeEntityPage.getTotalPages());
-    officePage.setTotalElements(officeEntityPage.getTotalElements());
-    officePage.setOffices(this.extractOfficeEntities(officeEntityPage, parentIdentifier));
+    if (officeProjectionSlice instanceof Page) {
+      final Page<OfficeProjection> officeProjectionPage = (Page<OfficeProjection>) officeProjectionSlice;
+      officePage.setTotalPages(officeProjectionPage.getTotalPages());
+      officePage.setTotalElements(officeProjectionPage.getTotalElements());
+    }
+    officePage.setHasNextPage(officeProjectionSlice.hasNext());
+    final List<OfficeProjection> officeProjections = officeProjectionSlice.getContent();
+    if (withCursor && officeProjectionSlice.hasNext() && !officeProjections.isEmpty()) {
+      final OfficeProjection last = officeProjections.get(officeProjections.size() - 1);
+      officePage.setNextCursor(ContinuationToken.of(last.getIdentifier(), last.getId()).encode());
+    }
+    officePage.setOffices(officeMapper.apply(officeProjections));
 
     return officePage;
   }
 
-  public List<Office> extractOfficeEntities(final Page<OfficeEntity> officeEntityPage, final String parentIdentifier) {
-    final List<Office> offices = new ArrayList<>(officeEntityPage.getSize());
-    officeEntityPage.forEach(officeEntity -> {
-      final Office office = OfficeMapper.map(officeEntity);
-      if (parentIdentifier != null) {
-        office.setParentIdentifier(parentIdentifier);
-      }
+  /**
+   * Maps the given offices and enriches them with the expanded fields. Addresses are loaded for all offices at once,
+   * the external references flag is derived from the counters kept on the office row.
+   */
+  private List<Office> extractOffices(final List<OfficeProjection> officeProjections, final Expansion expansion) {
+    if (officeProjections.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    final Map<Long, AddressEntity> addressEntities;
+    if (expansion.includes(Expansion.ADDRESS)) {
+      final List<Long> officeIds = officeProjections.stream()
+          .map(OfficeProjection::getId)
+          .collect(Collectors.toList());
+
+      addressEntities = this.addressRepository.findByOfficeIds(officeIds)
+          .stream()
+          .collect(Collectors.toMap(AddressEntity::getOfficeId, Function.identity(),
+              (addressEntity, duplicate) -> addressEntity));
+    } else {
+      addressEntities = Collections.emptyMap();
+    }
+
+    final List<Office> offices = new ArrayList<>(officeProjections.size());
+    officeProjections.forEach(officeProjection -> {
+      final Office office = OfficeMapper.map(officeProjection);
       offices.add(office);
 
-      final Optional<AddressEntity> addressEntityOptional = this.addressRepository.findByOffice(officeEntity);
-      addressEntityOptional.ifPresent(addressEntity -> office.setAddress(AddressMapper.map(addressEntity)));
+      final AddressEntity addressEntity = addressEntities.get(officeProjection.getId());
+      if (addressEntity != null) {
+        office.setAddress(AddressMapper.map(addressEntity));
+      }
 
-      office.setExternalReferences(
-          this.branchExists(office.getIdentifier())
-              || this.hasEmployees(office.getIdentifier())
-              || this.hasExternalReferences(office.getIdentifier())
-      );
+      if (expansion.includes(Expansion.EXTERNAL_REFERENCES)) {
+        office.setExternalReferences(officeProjection.hasExternalReferences());
+      }
     });
     return offices;
   }
 
-  public boolean hasExternalReferences(final String officeIdentifier) {
-    return this.externalReferenceRepository.findByOfficeIdentifier(officeIdentifier)
-        .stream()
-        .anyMatch(externalReferenceEntity ->
-            externalReferenceEntity.getState().equals(ExternalReference.State.ACTIVE.name()));
+  private static boolean isSet(final Object flag) {
+    return flag instanceof Boolean ? (Boolean) flag : ((Number) flag).intValue() != 0;
   }
 }
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.fineract.cn.office.api.v1.domain.Address;
+import org.apache.fineract.cn.office.api.v1.domain.Office;
+import org.apache.fineract.cn.office.internal.mapper.OfficeMapper;
+import org.apache.fineract.cn.office.internal.repository.OfficeProjection;
+
+/**
+ * Immutable picture of the office tree of one tenant. All lookups are plain map reads; every returned
+ * {@link Office} is a fresh copy, so callers can not alter the snapshot.
+ *
+ * <p>Offices are expected in the order the database sorts them by identifier. Lists keep that order instead of
+ * sorting in memory, since no Java comparator reproduces the collation of the database, and pages served from the
+ * snapshot must line up with pages and cursors served by the database.
+ */
+public final class OfficeSnapshot {
+
+  private final Map<String, OfficeProjection> officesByIdentifier;
+  private final Map<Long, Address> addressesByOfficeId;
+  private final Map<String, List<OfficeProjection>> branchesByParentIdentifier;
+  private final List<OfficeProjection> rootOffices;
+  private final long createdOn;
+
+  OfficeSnapshot(final List<OfficeProjection> officeProjections, final Map<Long, Address> addressesByOfficeId) {
+    super();
+
+    final Map<String, OfficeProjection> officesByIdentifier = new HashMap<>(officeProjections.size());
+    final Map<String, List<OfficeProjection>> branchesByParentIdentifier = new HashMap<>();
+    final List<OfficeProjection> rootOffices = new ArrayList<>();
+    officeProjections.forEach(officeProjection -> {
+      officesByIdentifier.put(officeProjection.getIdentifier(), officeProjection);
+      if (officeProjection.getParentIdentifier() == null) {
+        rootOffices.add(officeProjection);
+      } else {
+        branchesByParentIdentifier
+            .computeIfAbsent(officeProjection.getParentIdentifier(), parentIdentifier -> new ArrayList<>())
+            .add(officeProjection);
+      }
+    });
+    branchesByParentIdentifier.replaceAll((parentIdentifier, branches) -> Collections.unmodifiableList(branches));
+
+    this.officesByIdentifier = Collections.unmodifiableMap(officesByIdentifier);
+    this.addressesByOfficeId = Collections.unmodifiableMap(new HashMap<>(addressesByOfficeId));
+    this.branchesByParentIdentifier = Collections.unmodifiableMap(branchesByParentIdentifier);
+    this.rootOffices = Collections.unmodifiableList(rootOffices);
+    this.createdOn = System.currentTimeMillis();
+  }
+
+  public Optional<OfficeProjection> findOffice(final String identifier) {
+    return Optional.ofNullable(this.officesByIdentifier.get(identifier));
+  }
+
+  /**
+   * Branches of the given office ordered by identifier, or an empty list for offices without branches.
+   */
+  public List<OfficeProjection> getBranches(final String parentIdentifier) {
+    return this.branchesByParentIdentifier.getOrDefault(parentIdentifier, Collections.emptyList());
+  }
+
+  public List<OfficeProjection> getRootOffices() {
+    return this.rootOffices;
+  }
+
+  public Optional<Address> findAddress(final OfficeProjection officeProjection) {
+    return Optional.ofNullable(this.addressesByOfficeId.get(officeProjection.getId())).map(OfficeSnapshot::copy);
+  }
+
+  public long getCreatedOn() {
+    return this.createdOn;
+  }
+
+  public Office toOffice(final OfficeProjection officeProjection) {
+    return this.toOffice(officeProjection, Expansion.ALL);
+  }
+
+  public Office toOffice(final OfficeProjection officeProjection, final Expansion expansion) {
+    final Office office = OfficeMapper.map(officeProjection);
+    if (expansion.includes(Expansion.EXTERNAL_REFERENCES)) {
+      office.setExternalReferences(officeProjection.hasExternalReferences());
+    }
+
+    if (expansion.includes(Expansion.ADDRESS)) {
+      this.findAddress(officeProjection).ifPresent(office::setAddress);
+    }
+    return office;
+  }
+
+  static Address copy(final Address address) {
+    final Address copy = new Address();
+    copy.setStreet(address.getStreet());
+    copy.setCity(address.getCity());
+    copy.setRegion(address.getRegion());
+    copy.setPostalCode(address.getPostalCode());
+    copy.setCountry(address.getCountry());
+    copy.setCountryCode(address.getCountryCode());
+    return copy;
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.apache.fineract.cn.office.ServiceConstants;
+import org.apache.fineract.cn.office.api.v1.domain.Address;
+import org.apache.fineract.cn.office.internal.mapper.AddressMapper;
+import org.apache.fineract.cn.office.internal.repository.AddressEntity;
+import org.apache.fineract.cn.office.internal.repository.AddressRepository;
+import org.apache.fineract.cn.office.internal.repository.OfficeRepository;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps one {@link OfficeSnapshot} per tenant. Snapshots are built lazily, dropped once a transaction that changed
+ * offices commits, and rebuilt after a maximum age so changes committed on other nodes show up as well. Requests
+ * served by an existing snapshot count as hits, builds as misses and dropped snapshots as evictions; the counts of
+ * the tenant are logged with every build.
+ *
+ * <p>Only one request per tenant builds at a time. While it does, other requests keep using an expired snapshot if
+ * there is one, and otherwise wait for the build instead of starting their own.
+ *
+ * <p>The snapshot stands in for the Hibernate second level cache, which is not enabled: its entries are keyed by
+ * entity id alone, and all tenants share one entity manager factory. Entity and query caching of offices,
+ * addresses and external references therefore remains open until the cache can be scoped per tenant.
+ */
+@Component
+public class OfficeSnapshotHolder {
+
+  private final Logger logger;
+  private final OfficeRepository officeRepository;
+  private final AddressRepository addressRepository;
+  private final TransactionTemplate buildTransactionTemplate;
+  private final long maxAge;
+  private final Map<String, OfficeSnapshot> snapshots;
+  private final Map<String, AtomicLong> generations;
+  private final Map<String, ReentrantLock> buildLocks;
+  private final Map<String, CacheStatistics> statistics;
+
+  @Autowired
+  public OfficeSnapshotHolder(@Qualifier(ServiceConstants.SERVICE_LOGGER_NAME) final Logger logger,
+                              final OfficeRepository officeRepository,
+                              final AddressRepository addressRepository,
+                              final PlatformTransactionManager transactionManager,
+                              @Value("${office.snapshot.maxAge:60000}") final long maxAge) {
+    super();
+    this.logger = logger;
+    this.officeRepository = officeRepository;
+    this.addressRepository = addressRepository;
+    // snapshots outlive the request that built them, so they are read from the primary and never from a replica
+    this.buildTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.buildTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.maxAge = maxAge;
+    this.snapshots = new ConcurrentHashMap<>();
+    this.generations = new ConcurrentHashMap<>();
+    this.buildLocks = new ConcurrentHashMap<>();
+    this.statistics = new ConcurrentHashMap<>();
+  }
+
+  public OfficeSnapshot current() {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    final CacheStatistics tenantStatistics = this.statistics(tenantIdentifier);
+    final OfficeSnapshot snapshot = this.snapshots.get(tenantIdentifier);
+    if (snapshot != null && !this.isExpired(snapshot)) {
+      tenantStatistics.recordHit();
+      return snapshot;
+    }
+
+    final ReentrantLock buildLock = this.buildLocks.computeIfAbsent(tenantIdentifier, key -> new ReentrantLock());
+    if (snapshot != null && !buildLock.tryLock()) {
+      tenantStatistics.recordHit();
+      return snapshot;
+    }
+    if (snapshot == null) {
+      buildLock.lock();
+    }
+    try {
+      final OfficeSnapshot builtByOthers = this.snapshots.get(tenantIdentifier);
+      if (builtByOthers != null && !this.isExpired(builtByOthers)) {
+        tenantStatistics.recordHit();
+        return builtByOthers;
+      }
+      tenantStatistics.recordMiss();
+
+      final OfficeSnapshot builtSnapshot = this.buildAndInstall(tenantIdentifier);
+      if (builtSnapshot != null) {
+        this.logger.debug("Built office snapshot for tenant {}; {}.", tenantIdentifier, tenantStatistics);
+        return builtSnapshot;
+      }
+
+      // the change that kept this read from being installed has committed, so reading again sees it
+      this.logger.debug("Office snapshot for tenant {} changed while building, reading it again.", tenantIdentifier);
+      return this.buildTransactionTemplate.execute(status -> this.build());
+    } finally {
+      buildLock.unlock();
+    }
+  }
+
+  /**
+   * Drops the snapshot of the current tenant once the surrounding transaction commits.
+   */
+  public void invalidateAfterCommit() {
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+        @Override
+        public void afterCommit() {
+          OfficeSnapshotHolder.this.invalidate(tenantIdentifier);
+        }
+      });
+    } else {
+      this.invalidate(tenantIdentifier);
+    }
+  }
+
+  private CacheStatistics statistics(final String tenantIdentifier) {
+    return this.statistics.computeIfAbsent(tenantIdentifier, key -> new CacheStatistics());
+  }
+
+  private void invalidate(final String tenantIdentifier) {
+    this.generations.computeIfAbsent(tenantIdentifier, key -> new AtomicLong()).incrementAndGet();
+    if (this.snapshots.remove(tenantIdentifier) != null) {
+      this.statistics(tenantIdentifier).recordEviction();
+    }
+  }
+
+  /**
+   * Returns the built snapshot, or null if a change committed while building, in which case what was read may
+   * already be outdated and nothing is installed.
+   */
+  private OfficeSnapshot buildAndInstall(final String tenantIdentifier) {
+    final AtomicLong generation = this.generations.computeIfAbsent(tenantIdentifier, key -> new AtomicLong());
+    final long expectedGeneration = generation.get();
+    final OfficeSnapshot builtSnapshot = this.buildTransactionTemplate.execute(status -> this.build());
+    final OfficeSnapshot installedSnapshot = this.snapshots.compute(tenantIdentifier, (key, existing) ->
+        generation.get() == expectedGeneration ? builtSnapshot : existing);
+    return installedSnapshot == builtSnapshot ? builtSnapshot : null;
+  }
+
+  private boolean isExpired(final OfficeSnapshot snapshot) {
+    return System.currentTimeMillis() - snapshot.getCreatedOn() > this.maxAge;
+  }
+
+  private OfficeSnapshot build() {
+    final Map<Long, Address> addressesByOfficeId = this.addressRepository.findAll()
+        .stream()
+        .collect(Collectors.toMap(AddressEntity::getOfficeId, AddressMapper::map,
+            (address, duplicate) -> address));
+    return new OfficeSnapshot(this.officeRepository.findAllProjections(), addressesByOfficeId);
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.service;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.apache.fineract.cn.lang.ServiceException;
+import org.apache.fineract.cn.office.ServiceConstants;
+import org.apache.fineract.cn.office.api.v1.domain.Address;
+import org.apache.fineract.cn.office.internal.mapper.AddressMapper;
+import org.apache.fineract.cn.office.internal.repository.AddressEntity;
+import org.apache.fineract.cn.office.internal.repository.OfficeProjection;
+import org.apache.fineract.cn.office.internal.repository.OfficeTreeRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Writes office hierarchies as nested JSON while the rows are read. Only the offices on the path from the root to
+ * the current office are kept open, so memory does not grow with the size of the tree.
+ */
+@Service
+public class OfficeTreeService {
+
+  private final IdentifierCache identifierCache;
+  private final OfficeTreeRepository officeTreeRepository;
+  private final Gson gson;
+
+  @Autowired
+  public OfficeTreeService(final IdentifierCache identifierCache,
+                           final OfficeTreeRepository officeTreeRepository,
+                           @Qualifier(ServiceConstants.JSON_SERIALIZER_NAME) final Gson gson) {
+    super();
+    this.identifierCache = identifierCache;
+    this.officeTreeRepository = officeTreeRepository;
+    this.gson = gson;
+  }
+
+  @Transactional(readOnly = true)
+  public void writeTree(final String identifier, final Writer writer) throws IOException {
+    final Long officeId = this.identifierCache.findOfficeId(identifier)
+        .orElseThrow(() -> ServiceException.notFound("Office {0} not found.", identifier));
+
+    final JsonWriter jsonWriter = new JsonWriter(writer);
+    jsonWriter.setSerializeNulls(false);
+    final Deque<Integer> openLevels = new ArrayDeque<>();
+    this.officeTreeRepository.walkTree(officeId,
+        (level, officeProjection, addressEntity) -> this.writeOffice(jsonWriter, openLevels, level, officeProjection, addressEntity));
+    this.closeLevels(jsonWriter, openLevels, Integer.MIN_VALUE);
+    jsonWriter.flush();
+  }
+
+  @Transactional(readOnly = true)
+  public void writeForest(final Writer writer) throws IOException {
+    final JsonWriter jsonWriter = new JsonWriter(writer);
+    jsonWriter.setSerializeNulls(false);
+    final Deque<Integer> openLevels = new ArrayDeque<>();
+    jsonWriter.beginArray();
+    this.officeTreeRepository.walkForest(
+        (level, officeProjection, addressEntity) -> this.writeOffice(jsonWriter, openLevels, level, officeProjection, addressEntity));
+    this.closeLevels(jsonWriter, openLevels, Integer.MIN_VALUE);
+    jsonWriter.endArray();
+    jsonWriter.flush();
+  }
+
+  private void writeOffice(final JsonWriter jsonWriter,
+                           final Deque<Integer> openLevels,
+                           final int level,
+                           final OfficeProjection officeProjection,
+                           final AddressEntity addressEntity) {
+    try {
+      // rows come in depth-first order, so every office at the same or a higher level is complete
+      this.closeLevels(jsonWriter, openLevels, level);
+
+      jsonWriter.beginObject();
+      jsonWriter.name("identifier").value(officeProjection.getIdentifier());
+      jsonWriter.name("parentIdentifier").value(officeProjection.getParentIdentifier());
+      jsonWriter.name("name").value(officeProjection.getName());
+      jsonWriter.name("description").value(officeProjection.getDescription());
+      if (addressEntity != null) {
+        jsonWriter.name("address");
+        this.gson.toJson(AddressMapper.map(addressEntity), Address.class, jsonWriter);
+      }
+      jsonWriter.name("externalReferences").value(officeProjection.hasExternalReferences());
+      jsonWriter.name("branches").beginArray();
+      openLevels.push(level);
+    } catch (final IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private void closeLevels(final JsonWriter jsonWriter, final Deque<Integer> openLevels, final int level)
+      throws IOException {
+    while (!openLevels.isEmpty() && openLevels.peek() >= level) {
+      jsonWriter.endArray();
+      jsonWriter.endObject();
+      openLevels.pop();
+    }
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.service;
+
+/**
+ * A representation together with the entity tag of the state it was read from. Tag and value always come from the
+ * same source, so a conditional request never pairs a fresh tag with a cached body or the other way round.
+ */
+public final class Tagged<T> {
+
+  private final String entityTag;
+  private final T value;
+
+  public Tagged(final String entityTag, final T value) {
+    super();
+    this.entityTag = entityTag;
+    this.value = value;
+  }
+
+  public String getEntityTag() {
+    return this.entityTag;
+  }
+
+  /**
+   * May be null if the tagged resource exists but has no representation, e.g. an office without address.
+   */
+  public T getValue() {
+    return this.value;
+  }
+}
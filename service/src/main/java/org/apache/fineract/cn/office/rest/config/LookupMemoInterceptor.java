@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.rest.config;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.apache.fineract.cn.office.internal.service.LookupMemo;
+import org.slf4j.Logger;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
+
+/**
+ * Scopes identifier lookups to the request and logs where they were answered at debug level.
+ */
+public class LookupMemoInterceptor extends HandlerInterceptorAdapter {
+
+  private final Logger logger;
+
+  public LookupMemoInterceptor(final Logger logger) {
+    super();
+    this.logger = logger;
+  }
+
+  @Override
+  public boolean preHandle(final HttpServletRequest request, final HttpServletResponse response,
+                           final Object handler) {
+    LookupMemo.begin();
+    return true;
+  }
+
+  @Override
+  public void afterConcurrentHandlingStarted(final HttpServletRequest request, final HttpServletResponse response,
+                                             final Object handler) {
+    LookupMemo.end();
+  }
+
+  @Override
+  public void afterCompletion(final HttpServletRequest request, final HttpServletResponse response,
+                              final Object handler, final Exception ex) {
+    LookupMemo.end()
+        .filter(lookupMemo -> lookupMemo.getLookups() > 0 && this.logger.isDebugEnabled())
+        .ifPresent(lookupMemo -> this.logger.debug(
+            "{} {} made {} identifier lookups: {} from the request memo, {} from the cache, {} from the filter, {} from the database.",
+            request.getMethod(), request.getRequestURI(), lookupMemo.getLookups(), lookupMemo.getMemoHits(),
+            lookupMemo.getCacheHits(), lookupMemo.getFilterHits(), lookupMemo.getDatabaseHits()));
+  }
+}
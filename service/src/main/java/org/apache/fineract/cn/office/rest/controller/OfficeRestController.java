@@ -18,6 +18,7 @@
  */
 package org.apache.fineract.cn.office.rest.controller;
 
+import org.apache.fineract.cn.office.ServiceConstants;
 import org.apache.fineract.cn.office.api.v1.PermittableGroupIds;
 import org.apache.fineract.cn.office.api.v1.domain.Address;
 import org.apache.fineract.cn.office.api.v1.domain.ContactDetail;
@@ -26,8 +27,11 @@ import org.apache.fineract.cn.office.api.v1.domain.EmployeePage;
 import org.apache.fineract.cn.office.api.v1.domain.ExternalReference;
 import org.apache.fineract.cn.office.api.v1.domain.Office;
 import org.apache.fineract.cn.office.api.v1.domain.OfficePage;
+import java.io.IOException;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import org.apache.fineract.cn.anubis.annotation.AcceptedTokenType;
 import org.apache.fineract.cn.anubis.annotation.Permittable;
@@ -42,12 +46,18 @@ import org.apache.fineract.cn.office.internal.command.DeleteContactDetailCommand
 import org.apache.fineract.cn.office.internal.command.DeleteEmployeeCommand;
 import org.apache.fineract.cn.office.internal.command.DeleteOfficeCommand;
 import org.apache.fineract.cn.office.internal.command.InitializeServiceCommand;
+import org.apache.fineract.cn.office.internal.command.RepairOfficeCountersCommand;
 import org.apache.fineract.cn.office.internal.command.SetAddressForOfficeCommand;
 import org.apache.fineract.cn.office.internal.command.SetContactDetailsCommand;
 import org.apache.fineract.cn.office.internal.command.UpdateEmployeeCommand;
 import org.apache.fineract.cn.office.internal.command.UpdateOfficeCommand;
+import org.apache.fineract.cn.office.internal.service.ContinuationToken;
 import org.apache.fineract.cn.office.internal.service.EmployeeService;
+import org.apache.fineract.cn.office.internal.service.Expansion;
+import org.apache.fineract.cn.office.internal.service.OfficeDeletability;
 import org.apache.fineract.cn.office.internal.service.OfficeService;
+import org.apache.fineract.cn.office.internal.service.OfficeTreeService;
+import org.apache.fineract.cn.office.internal.service.Tagged;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -61,6 +71,7 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/")
@@ -69,15 +80,18 @@ public class OfficeRestController {
   private final CommandGateway commandGateway;
   private final OfficeService officeService;
   private final EmployeeService employeeService;
+  private final OfficeTreeService officeTreeService;
 
   @Autowired
   public OfficeRestController(final CommandGateway commandGateway,
                               final OfficeService officeService,
-                              final EmployeeService employeeService) {
+                              final EmployeeService employeeService,
+                              final OfficeTreeService officeTreeService) {
     super();
     this.commandGateway = commandGateway;
     this.officeService = officeService;
     this.employeeService = employeeService;
+    this.officeTreeService = officeTreeService;
   }
 
   @Permittable(value = AcceptedTokenType.SYSTEM)
@@ -94,6 +108,20 @@ public class OfficeRestController {
     return ResponseEntity.accepted().build();
   }
 
+  @Permittable(value = AcceptedTokenType.SYSTEM)
+  @RequestMapping(
+      value = "/counters/repair",
+      method = RequestMethod.POST,
+      consumes = MediaType.ALL_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  public
+  @ResponseBody
+  ResponseEntity<Void> repairCounters() {
+    this.commandGateway.process(new RepairOfficeCountersCommand());
+    return ResponseEntity.accepted().build();
+  }
+
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.OFFICE_MANAGEMENT)
   @RequestMapping(
       value = "/offices",
@@ -108,6 +136,8 @@ public class OfficeRestController {
       throw ServiceException.badRequest("An office must be given.");
     }
 
+    this.checkIdentifierNotReserved(office);
+
     if (this.officeService.officeExists(office.getIdentifier())) {
       throw ServiceException.conflict("Office {0} already exists.", office.getIdentifier());
     }
@@ -128,8 +158,35 @@ public class OfficeRestController {
                                           @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
                                           @RequestParam(value = "size", required = false) final Integer size,
                                           @RequestParam(value = "sortColumn", required = false) final String sortColumn,
-                                          @RequestParam(value = "sortDirection", required = false) final String sortDirection) {
-    return ResponseEntity.ok(this.officeService.fetchOffices(term, this.createPageRequest(pageIndex, size, sortColumn, sortDirection)));
+                                          @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+                                          @RequestParam(value = "cursor", required = false) final String cursor,
+                                          @RequestParam(value = "withTotals", required = false, defaultValue = "true") final Boolean withTotals,
+                                          @RequestParam(value = "country", required = false) final String countryCode,
+                                          @RequestParam(value = "city", required = false) final String city,
+                                          @RequestParam(value = "region", required = false) final String region,
+                                          @RequestParam(value = "expand", required = false) final String expand) {
+    final Pageable pageRequest = this.createPageRequest(pageIndex, size, sortColumn, sortDirection);
+    final Expansion expansion = Expansion.ofOffices(expand);
+    if (countryCode != null || city != null || region != null) {
+      if (countryCode == null) {
+        throw ServiceException.badRequest("Address filters require a country.");
+      }
+      if (term != null) {
+        throw ServiceException.badRequest("Address filters can not be combined with a term.");
+      }
+      if (cursor != null) {
+        ContinuationToken.checkSupported(sortColumn, sortDirection);
+        return ResponseEntity.ok(this.officeService.fetchOfficesByAddressAfter(countryCode, city, region, cursor,
+            pageRequest.getPageSize(), expansion));
+      }
+      return ResponseEntity.ok(this.officeService.fetchOfficesByAddress(countryCode, city, region, pageRequest, withTotals,
+          expansion));
+    }
+    if (cursor != null) {
+      ContinuationToken.checkSupported(sortColumn, sortDirection);
+      return ResponseEntity.ok(this.officeService.fetchOfficesAfter(term, cursor, pageRequest.getPageSize(), expansion));
+    }
+    return ResponseEntity.ok(this.officeService.fetchOffices(term, pageRequest, withTotals, expansion));
   }
 
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.OFFICE_MANAGEMENT)
@@ -141,13 +198,29 @@ public class OfficeRestController {
   )
   public
   @ResponseBody
-  ResponseEntity<Office> findOffice(@PathVariable("identifier") final String identifier) {
-    final Optional<Office> office = this.officeService.findOfficeByIdentifier(identifier);
-    if (office.isPresent()) {
-      return ResponseEntity.ok(office.get());
-    } else {
-      throw ServiceException.notFound("Office with identifier {0} not found.", identifier);
+  ResponseEntity<Office> findOffice(@PathVariable("identifier") final String identifier,
+                                    final WebRequest webRequest) {
+    final Tagged<Office> office = this.officeService.findOfficeByIdentifier(identifier)
+        .orElseThrow(() -> ServiceException.notFound("Office with identifier {0} not found.", identifier));
+    if (webRequest.checkNotModified(office.getEntityTag())) {
+      return null;
     }
+    return ResponseEntity.ok(office.getValue());
+  }
+
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.OFFICE_MANAGEMENT)
+  @RequestMapping(
+      value = "/offices/batch-get",
+      method = RequestMethod.POST,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  public
+  @ResponseBody
+  ResponseEntity<List<Office>> findOfficesByIdentifiers(@RequestBody final List<String> identifiers,
+                                                        @RequestParam(value = "expand", required = false) final String expand) {
+    return ResponseEntity.ok(this.officeService.findOfficesByIdentifiers(this.checkedBatchIdentifiers(identifiers),
+        Expansion.ofOffices(expand)));
   }
 
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.OFFICE_MANAGEMENT)
@@ -192,6 +265,8 @@ public class OfficeRestController {
       throw ServiceException.badRequest("An office must be given.");
     }
 
+    this.checkIdentifierNotReserved(office);
+
     if (this.officeService.officeExists(office.getIdentifier())) {
       throw ServiceException.conflict("Office {0} already exists.", office.getIdentifier());
     }
@@ -213,11 +288,79 @@ public class OfficeRestController {
                                          @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
                                          @RequestParam(value = "size", required = false) final Integer size,
                                          @RequestParam(value = "sortColumn", required = false) final String sortColumn,
-                                         @RequestParam(value = "sortDirection", required = false) final String sortDirection) {
+                                         @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+                                         @RequestParam(value = "cursor", required = false) final String cursor,
+                                         @RequestParam(value = "withTotals", required = false, defaultValue = "true") final Boolean withTotals,
+                                         @RequestParam(value = "expand", required = false) final String expand) {
     if (!this.officeService.officeExists(identifier)) {
       throw ServiceException.notFound("Parent office {0} not found.", identifier);
     }
-    return ResponseEntity.ok(this.officeService.fetchBranches(identifier, this.createPageRequest(pageIndex, size, sortColumn, sortDirection)));
+    final Pageable pageRequest = this.createPageRequest(pageIndex, size, sortColumn, sortDirection);
+    final Expansion expansion = Expansion.ofOffices(expand);
+    if (cursor != null) {
+      ContinuationToken.checkSupported(sortColumn, sortDirection);
+      return ResponseEntity.ok(this.officeService.fetchBranchesAfter(identifier, cursor, pageRequest.getPageSize(),
+          expansion));
+    }
+    return ResponseEntity.ok(this.officeService.fetchBranches(identifier, pageRequest, withTotals, expansion));
+  }
+
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.OFFICE_MANAGEMENT)
+  @RequestMapping(
+      value = "/offices/{identifier}/descendants",
+      method = RequestMethod.GET,
+      consumes = MediaType.ALL_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  public
+  @ResponseBody
+  ResponseEntity<OfficePage> getDescendants(@PathVariable("identifier") final String identifier,
+                                            @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
+                                            @RequestParam(value = "size", required = false) final Integer size,
+                                            @RequestParam(value = "sortColumn", required = false) final String sortColumn,
+                                            @RequestParam(value = "sortDirection", required = false) final String sortDirection) {
+    return ResponseEntity.ok(this.officeService.fetchDescendants(identifier, this.createPageRequest(pageIndex, size, sortColumn, sortDirection)));
+  }
+
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.OFFICE_MANAGEMENT)
+  @RequestMapping(
+      value = "/offices/{identifier}/tree",
+      method = RequestMethod.GET,
+      consumes = MediaType.ALL_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  public void getOfficeTree(@PathVariable("identifier") final String identifier,
+                            final HttpServletResponse response) throws IOException {
+    if (!this.officeService.officeExists(identifier)) {
+      throw ServiceException.notFound("Office {0} not found.", identifier);
+    }
+    response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+    this.officeTreeService.writeTree(identifier, response.getWriter());
+  }
+
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.OFFICE_MANAGEMENT)
+  @RequestMapping(
+      value = "/tree",
+      method = RequestMethod.GET,
+      consumes = MediaType.ALL_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  public void getOfficeTrees(final HttpServletResponse response) throws IOException {
+    response.setContentType(MediaType.APPLICATION_JSON_UTF8_VALUE);
+    this.officeTreeService.writeForest(response.getWriter());
+  }
+
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.OFFICE_MANAGEMENT)
+  @RequestMapping(
+      value = "/offices/{identifier}/ancestors",
+      method = RequestMethod.GET,
+      consumes = MediaType.ALL_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  public
+  @ResponseBody
+  ResponseEntity<List<Office>> getAncestors(@PathVariable("identifier") final String identifier) {
+    return ResponseEntity.ok(this.officeService.findAncestors(identifier));
   }
 
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.OFFICE_MANAGEMENT)
@@ -231,19 +374,20 @@ public class OfficeRestController {
   @ResponseBody
   ResponseEntity<Void> deleteOffice(@PathVariable("identifier") final String identifier)
       throws InterruptedException {
-    if (!this.officeService.officeExists(identifier)) {
+    final OfficeDeletability deletability = this.officeService.checkDeletability(identifier);
+    if (deletability.hasReason(OfficeDeletability.Reason.NOT_FOUND)) {
       throw ServiceException.notFound("Office {0} not found.", identifier);
     }
 
-    if (this.officeService.branchExists(identifier)) {
+    if (deletability.hasReason(OfficeDeletability.Reason.HAS_BRANCHES)) {
       throw ServiceException.conflict("Office {0} has children.", identifier);
     }
 
-    if(this.officeService.hasEmployees(identifier)){
+    if (deletability.hasReason(OfficeDeletability.Reason.HAS_EMPLOYEES)) {
       throw ServiceException.conflict("Office {0} has employees.", identifier);
     }
 
-    if (this.officeService.hasExternalReferences(identifier)) {
+    if (deletability.hasReason(OfficeDeletability.Reason.HAS_EXTERNAL_REFERENCES)) {
       throw ServiceException.conflict("Office {0} has external references.", identifier);
     }
 
@@ -280,10 +424,16 @@ public class OfficeRestController {
   )
   public
   @ResponseBody
-  ResponseEntity getAddressOfOffice(@PathVariable("identifier") final String identifier) {
-    final Optional<Address> addressOfOffice = this.officeService.findAddressOfOffice(identifier);
-    if (addressOfOffice.isPresent()) {
-      return ResponseEntity.ok(addressOfOffice.get());
+  ResponseEntity getAddressOfOffice(@PathVariable("identifier") final String identifier,
+                                    final WebRequest webRequest) {
+    final Tagged<Address> addressOfOffice = this.officeService.findAddressOfOffice(identifier)
+        .orElseThrow(() -> ServiceException.notFound("Office {0} not found.", identifier));
+    if (webRequest.checkNotModified(addressOfOffice.getEntityTag())) {
+      return null;
+    }
+
+    if (addressOfOffice.getValue() != null) {
+      return ResponseEntity.ok(addressOfOffice.getValue());
     } else {
       return ResponseEntity.noContent().build();
     }
@@ -343,11 +493,25 @@ public class OfficeRestController {
                                               @RequestParam(value = "pageIndex", required = false) final Integer pageIndex,
                                               @RequestParam(value = "size", required = false) final Integer size,
                                               @RequestParam(value = "sortColumn", required = false) final String sortColumn,
-                                              @RequestParam(value = "sortDirection", required = false) final String sortDirection) {
+                                              @RequestParam(value = "sortDirection", required = false) final String sortDirection,
+                                              @RequestParam(value = "cursor", required = false) final String cursor,
+                                              @RequestParam(value = "withTotals", required = false, defaultValue = "true") final Boolean withTotals,
+                                              @RequestParam(value = "contact", required = false) final String contact,
+                                              @RequestParam(value = "expand", required = false) final String expand) {
     if (officeIdentifier != null && !this.officeService.officeExists(officeIdentifier)) {
       throw ServiceException.notFound("Office {0} not found.", officeIdentifier);
     }
-    return ResponseEntity.ok(this.employeeService.findEmployees(term, officeIdentifier, this.createPageRequest(pageIndex, size, sortColumn, sortDirection)));
+    final Pageable pageRequest = this.createPageRequest(pageIndex, size, sortColumn, sortDirection);
+    final Expansion expansion = Expansion.ofEmployees(expand);
+    if (contact != null) {
+      return ResponseEntity.ok(this.employeeService.findEmployeesByContact(contact, pageRequest, expansion));
+    }
+    if (cursor != null) {
+      ContinuationToken.checkSupported(sortColumn, sortDirection);
+      return ResponseEntity.ok(this.employeeService.findEmployeesAfter(term, officeIdentifier, cursor, pageRequest.getPageSize(),
+          expansion));
+    }
+    return ResponseEntity.ok(this.employeeService.findEmployees(term, officeIdentifier, pageRequest, withTotals, expansion));
   }
 
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.EMPLOYEE_MANAGEMENT)
@@ -360,13 +524,29 @@ public class OfficeRestController {
   )
   public
   @ResponseBody
-  ResponseEntity<Employee> findEmployee(@PathVariable("useridentifier") final String identifier) {
-    final Optional<Employee> employee = this.employeeService.findByCode(identifier);
-    if (employee.isPresent()) {
-      return ResponseEntity.ok(employee.get());
-    } else {
-      throw ServiceException.notFound("Employee with identifier {0} not found.", identifier);
+  ResponseEntity<Employee> findEmployee(@PathVariable("useridentifier") final String identifier,
+                                        final WebRequest webRequest) {
+    final Tagged<Employee> employee = this.employeeService.findByCode(identifier, webRequest::checkNotModified)
+        .orElseThrow(() -> ServiceException.notFound("Employee with identifier {0} not found.", identifier));
+    if (employee.getValue() == null) {
+      return null;
     }
+    return ResponseEntity.ok(employee.getValue());
+  }
+
+  @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.EMPLOYEE_MANAGEMENT)
+  @RequestMapping(
+      value = "/employees/batch-get",
+      method = RequestMethod.POST,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE
+  )
+  public
+  @ResponseBody
+  ResponseEntity<List<Employee>> findEmployeesByIdentifiers(@RequestBody final List<String> identifiers,
+                                                            @RequestParam(value = "expand", required = false) final String expand) {
+    return ResponseEntity.ok(this.employeeService.findEmployeesByIdentifiers(this.checkedBatchIdentifiers(identifiers),
+        Expansion.ofEmployees(expand)));
   }
 
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.EMPLOYEE_MANAGEMENT)
@@ -445,11 +625,15 @@ public class OfficeRestController {
   )
   public
   @ResponseBody
-  ResponseEntity<List<ContactDetail>> fetchContactDetails(@PathVariable("useridentifier") final String identifier) {
-    if (!this.employeeService.employeeExists(identifier)) {
-      throw ServiceException.notFound("Employee {0} not found.", identifier);
+  ResponseEntity<List<ContactDetail>> fetchContactDetails(@PathVariable("useridentifier") final String identifier,
+                                                          final WebRequest webRequest) {
+    final Tagged<List<ContactDetail>> contactDetails =
+        this.employeeService.findContactDetailsByEmployee(identifier, webRequest::checkNotModified)
+            .orElseThrow(() -> ServiceException.notFound("Employee {0} not found.", identifier));
+    if (contactDetails.getValue() == null) {
+      return null;
     }
-    return ResponseEntity.ok(this.employeeService.findContactDetailsByEmployee(identifier));
+    return ResponseEntity.ok(contactDetails.getValue());
   }
 
   @Permittable(value = AcceptedTokenType.TENANT, groupId = PermittableGroupIds.EMPLOYEE_MANAGEMENT)
@@ -492,6 +676,28 @@ public class OfficeRestController {
     return ResponseEntity.accepted().build();
   }
 
+  private void checkIdentifierNotReserved(final Office office) {
+    if (ServiceConstants.RESERVED_OFFICE_IDENTIFIER.equalsIgnoreCase(office.getIdentifier())) {
+      throw ServiceException.badRequest("Office identifier {0} is reserved.", office.getIdentifier());
+    }
+  }
+
+  private Set<String> checkedBatchIdentifiers(final List<String> identifiers) {
+    if (identifiers == null || identifiers.isEmpty()) {
+      throw ServiceException.badRequest("At least one identifier must be given.");
+    }
+    if (identifiers.contains(null)) {
+      throw ServiceException.badRequest("Identifiers must not be null.");
+    }
+
+    final Set<String> distinctIdentifiers = new LinkedHashSet<>(identifiers);
+    if (distinctIdentifiers.size() > ServiceConstants.MAX_BATCH_GET_SIZE) {
+      throw ServiceException.badRequest("At most {0} identifiers can be resolved at once.",
+          ServiceConstants.MAX_BATCH_GET_SIZE);
+    }
+    return distinctIdentifiers;
+  }
+
   private Pageable createPageRequest(final Integer pageIndex, final Integer size, final String sortColumn, final String sortDirection) {
     final Integer pageIndexToUse = pageIndex != null ? pageIndex : 0;
     final Integer sizeToUse = size != null ? size : 20;
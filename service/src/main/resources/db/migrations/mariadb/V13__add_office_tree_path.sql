@@ -0,0 +1,33 @@
+--
+-- Licensed to the Apache Software Foundation (ASF) under one
+-- or more contributor license agreements.  See the NOTICE file
+-- distributed with this work for additional information
+-- regarding copyright ownership.  The ASF licenses this file
+-- to you under the Apache License, Version 2.0 (the
+-- "License"); you may not use this file except in compliance
+-- with the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing,
+-- software distributed under the License is distributed on an
+-- "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+-- KIND, either express or implied.  See the License for the
+-- specific language governing permissions and limitations
+-- under the License.
+
+ALTER TABLE horus_offices ADD COLUMN tree_path VARCHAR(2048) CHARACTER SET ascii COLLATE ascii_general_ci NULL;
+
+SET SESSION group_concat_max_len = 2048;
+
+UPDATE horus_offices o
+  JOIN (SELECT c.descendant_id AS office_id,
+               GROUP_CONCAT(CONCAT(a.identifier, ' ') ORDER BY c.depth DESC SEPARATOR '') AS tree_path
+        FROM horus_office_closure c
+          JOIN horus_offices a ON a.id = c.ancestor_id
+        GROUP BY c.descendant_id) p ON p.office_id = o.id
+  SET o.tree_path = p.tree_path;
+
+SET SESSION group_concat_max_len = DEFAULT;
+
+CREATE INDEX office_tree_path_idx ON horus_offices (tree_path);
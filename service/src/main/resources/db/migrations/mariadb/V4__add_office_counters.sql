@@ -0,0 +1,36 @@
+--
+-- Licensed to the Apache Software Foundation (ASF) under one
+-- or more contributor license agreements.  See the NOTICE file
+-- distributed with this work for additional information
+-- regarding copyright ownership.  The ASF licenses this file
+-- to you under the Apache License, Version 2.0 (the
+-- "License"); you may not use this file except in compliance
+-- with the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing,
+-- software distributed under the License is distributed on an
+-- "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+-- KIND, either express or implied.  See the License for the
+-- specific language governing permissions and limitations
+-- under the License.
+
+ALTER TABLE horus_offices ADD COLUMN child_count INT NOT NULL DEFAULT 0;
+ALTER TABLE horus_offices ADD COLUMN employee_count INT NOT NULL DEFAULT 0;
+ALTER TABLE horus_offices ADD COLUMN active_reference_count INT NOT NULL DEFAULT 0;
+
+UPDATE horus_offices o
+  LEFT JOIN (SELECT parent_office_id, COUNT(*) AS cnt FROM horus_offices WHERE parent_office_id IS NOT NULL GROUP BY parent_office_id) c
+    ON c.parent_office_id = o.id
+SET o.child_count = COALESCE(c.cnt, 0);
+
+UPDATE horus_offices o
+  LEFT JOIN (SELECT assigned_office_id, COUNT(*) AS cnt FROM horus_employees WHERE assigned_office_id IS NOT NULL GROUP BY assigned_office_id) e
+    ON e.assigned_office_id = o.id
+SET o.employee_count = COALESCE(e.cnt, 0);
+
+UPDATE horus_offices o
+  LEFT JOIN (SELECT office_identifier, COUNT(*) AS cnt FROM horus_external_references WHERE a_state = 'ACTIVE' GROUP BY office_identifier) r
+    ON r.office_identifier = o.identifier
+SET o.active_reference_count = COALESCE(r.cnt, 0);
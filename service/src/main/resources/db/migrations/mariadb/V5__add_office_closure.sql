@@ -0,0 +1,39 @@
+--
+-- Licensed to the Apache Software Foundation (ASF) under one
+-- or more contributor license agreements.  See the NOTICE file
+-- distributed with this work for additional information
+-- regarding copyright ownership.  The ASF licenses this file
+-- to you under the Apache License, Version 2.0 (the
+-- "License"); you may not use this file except in compliance
+-- with the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing,
+-- software distributed under the License is distributed on an
+-- "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+-- KIND, either express or implied.  See the License for the
+-- specific language governing permissions and limitations
+-- under the License.
+
+CREATE TABLE horus_office_closure (
+  id            BIGINT NOT NULL AUTO_INCREMENT,
+  ancestor_id   BIGINT NOT NULL,
+  descendant_id BIGINT NOT NULL,
+  depth         INT    NOT NULL,
+  CONSTRAINT office_closure_pk
+  PRIMARY KEY (id),
+  CONSTRAINT office_closure_uq
+  UNIQUE (ancestor_id, descendant_id),
+  CONSTRAINT office_closure_ancestor_fk
+  FOREIGN KEY (ancestor_id) REFERENCES horus_offices (id)
+    ON UPDATE RESTRICT,
+  CONSTRAINT office_closure_descendant_fk
+  FOREIGN KEY (descendant_id) REFERENCES horus_offices (id)
+    ON UPDATE RESTRICT
+);
+
+CREATE INDEX office_closure_descendant_idx ON horus_office_closure (descendant_id, depth);
+
+INSERT INTO horus_office_closure (ancestor_id, descendant_id, depth)
+  SELECT id, id, 0 FROM horus_offices;
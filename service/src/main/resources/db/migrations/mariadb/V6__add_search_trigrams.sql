@@ -0,0 +1,52 @@
+--
+-- Licensed to the Apache Software Foundation (ASF) under one
+-- or more contributor license agreements.  See the NOTICE file
+-- distributed with this work for additional information
+-- regarding copyright ownership.  The ASF licenses this file
+-- to you under the Apache License, Version 2.0 (the
+-- "License"); you may not use this file except in compliance
+-- with the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing,
+-- software distributed under the License is distributed on an
+-- "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+-- KIND, either express or implied.  See the License for the
+-- specific language governing permissions and limitations
+-- under the License.
+
+CREATE TABLE horus_search_trigrams (
+  id         BIGINT      NOT NULL AUTO_INCREMENT,
+  owner_type VARCHAR(16) NOT NULL,
+  owner_id   BIGINT      NOT NULL,
+  trigram    VARCHAR(3)  NOT NULL,
+  CONSTRAINT search_trigram_pk
+  PRIMARY KEY (id),
+  CONSTRAINT search_trigram_owner_uq
+  UNIQUE (owner_type, owner_id, trigram)
+);
+
+CREATE INDEX search_trigram_lookup_idx ON horus_search_trigrams (owner_type, trigram, owner_id);
+
+INSERT INTO horus_search_trigrams (owner_type, owner_id, trigram)
+  SELECT DISTINCT 'OFFICE', o.id, LOWER(SUBSTRING(CONCAT(o.identifier, ' ', o.a_name), n.pos, 3))
+  FROM horus_offices o
+    JOIN (SELECT a.digit + 10 * b.digit + 100 * c.digit + 1 AS pos
+          FROM (SELECT 0 AS digit UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+                UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) a,
+               (SELECT 0 AS digit UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+                UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) b,
+               (SELECT 0 AS digit UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+                UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) c) n
+      ON n.pos <= CHAR_LENGTH(CONCAT(o.identifier, ' ', o.a_name)) - 2;
+
+INSERT INTO horus_search_trigrams (owner_type, owner_id, trigram)
+  SELECT DISTINCT 'EMPLOYEE', e.id, LOWER(SUBSTRING(e.identifier, n.pos, 3))
+  FROM horus_employees e
+    JOIN (SELECT a.digit + 10 * b.digit + 1 AS pos
+          FROM (SELECT 0 AS digit UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+                UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) a,
+               (SELECT 0 AS digit UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+                UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) b) n
+      ON n.pos <= CHAR_LENGTH(e.identifier) - 2;
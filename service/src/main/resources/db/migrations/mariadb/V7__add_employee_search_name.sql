@@ -0,0 +1,37 @@
+--
+-- Licensed to the Apache Software Foundation (ASF) under one
+-- or more contributor license agreements.  See the NOTICE file
+-- distributed with this work for additional information
+-- regarding copyright ownership.  The ASF licenses this file
+-- to you under the Apache License, Version 2.0 (the
+-- "License"); you may not use this file except in compliance
+-- with the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing,
+-- software distributed under the License is distributed on an
+-- "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+-- KIND, either express or implied.  See the License for the
+-- specific language governing permissions and limitations
+-- under the License.
+
+ALTER TABLE horus_employees ADD COLUMN search_name VARCHAR(770) NULL;
+
+UPDATE horus_employees
+  SET search_name = NULLIF(LOWER(CONCAT_WS(' ', NULLIF(TRIM(given_name), ''), NULLIF(TRIM(middle_name), ''),
+                                           NULLIF(TRIM(surname), ''))), '');
+
+DELETE FROM horus_search_trigrams WHERE owner_type = 'EMPLOYEE';
+
+INSERT INTO horus_search_trigrams (owner_type, owner_id, trigram)
+  SELECT DISTINCT 'EMPLOYEE', e.id, LOWER(SUBSTRING(CONCAT_WS(' ', e.identifier, e.search_name), n.pos, 3))
+  FROM horus_employees e
+    JOIN (SELECT a.digit + 10 * b.digit + 100 * c.digit + 1 AS pos
+          FROM (SELECT 0 AS digit UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+                UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) a,
+               (SELECT 0 AS digit UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+                UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) b,
+               (SELECT 0 AS digit UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4
+                UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9) c) n
+      ON n.pos <= CHAR_LENGTH(CONCAT_WS(' ', e.identifier, e.search_name)) - 2;
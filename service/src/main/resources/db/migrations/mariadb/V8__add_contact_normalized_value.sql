@@ -0,0 +1,31 @@
+--
+-- Licensed to the Apache Software Foundation (ASF) under one
+-- or more contributor license agreements.  See the NOTICE file
+-- distributed with this work for additional information
+-- regarding copyright ownership.  The ASF licenses this file
+-- to you under the Apache License, Version 2.0 (the
+-- "License"); you may not use this file except in compliance
+-- with the License.  You may obtain a copy of the License at
+--
+--   http://www.apache.org/licenses/LICENSE-2.0
+--
+-- Unless required by applicable law or agreed to in writing,
+-- software distributed under the License is distributed on an
+-- "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+-- KIND, either express or implied.  See the License for the
+-- specific language governing permissions and limitations
+-- under the License.
+
+ALTER TABLE horus_contact_details ADD COLUMN normalized_value VARCHAR(256) NULL;
+
+UPDATE horus_contact_details
+  SET normalized_value = CASE
+    WHEN LOCATE('@', a_value) > 0 THEN LOWER(TRIM(a_value))
+    WHEN REGEXP_REPLACE(a_value, '[^0-9]', '') = '' THEN LOWER(TRIM(a_value))
+    WHEN TRIM(a_value) LIKE '+%' THEN CONCAT('+', REGEXP_REPLACE(a_value, '[^0-9]', ''))
+    WHEN REGEXP_REPLACE(a_value, '[^0-9]', '') LIKE '00%'
+      THEN CONCAT('+', SUBSTRING(REGEXP_REPLACE(a_value, '[^0-9]', ''), 3))
+    ELSE REGEXP_REPLACE(a_value, '[^0-9]', '')
+  END;
+
+CREATE INDEX contact_detail_normalized_value_idx ON horus_contact_details (normalized_value(128));
@@ -221,6 +221,60 @@ public class TestEmployee {
     } catch (Exception exception){ exception.printStackTrace(); }
   }
 
+  @Test
+  public void shouldFindEmployeesWithoutTotals() throws Exception {
+    final Employee firstEmployee = EmployeeFactory.createRandomEmployee();
+    this.organizationManager.createEmployee(firstEmployee);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_EMPLOYEE, firstEmployee.getIdentifier());
+    final Employee secondEmployee = EmployeeFactory.createRandomEmployee();
+    this.organizationManager.createEmployee(secondEmployee);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_EMPLOYEE, secondEmployee.getIdentifier());
+
+    final EmployeePage employeePage = this.organizationManager.fetchEmployees(null, null, 0, 1, null, null, Boolean.FALSE);
+    Assert.assertNull(employeePage.getTotalElements());
+    Assert.assertNull(employeePage.getTotalPages());
+    Assert.assertEquals(1, employeePage.getEmployees().size());
+    Assert.assertTrue(employeePage.getHasNextPage());
+
+    this.organizationManager.deleteEmployee(firstEmployee.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_EMPLOYEE, firstEmployee.getIdentifier());
+    this.organizationManager.deleteEmployee(secondEmployee.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_EMPLOYEE, secondEmployee.getIdentifier());
+  }
+
+  @Test
+  public void shouldFindEmployeesBySurname() throws Exception {
+    final String surname = "\u00D6kafor" + RandomStringUtils.randomAlphanumeric(8);
+    final Employee employee = EmployeeFactory.createRandomEmployee();
+    employee.setSurname(surname);
+    this.organizationManager.createEmployee(employee);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_EMPLOYEE, employee.getIdentifier());
+
+    final EmployeePage employeePage =
+        this.organizationManager.fetchEmployees("okafor" + surname.substring(6), null, 0, 10, null, null);
+    Assert.assertEquals(1, employeePage.getEmployees().size());
+    Assert.assertEquals(employee.getIdentifier(), employeePage.getEmployees().get(0).getIdentifier());
+
+    this.organizationManager.deleteEmployee(employee.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_EMPLOYEE, employee.getIdentifier());
+  }
+
+  @Test
+  public void shouldFindEmployeesByShortTermAtEndOfSurname() throws Exception {
+    final Employee employee = EmployeeFactory.createRandomEmployee();
+    employee.setSurname("Nguy\u1EC5n" + RandomStringUtils.randomAlphabetic(8));
+    this.organizationManager.createEmployee(employee);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_EMPLOYEE, employee.getIdentifier());
+
+    final String term = employee.getSurname().substring(employee.getSurname().length() - 2).toUpperCase();
+    final EmployeePage employeePage = this.organizationManager.fetchEmployees(term, null, 0, 100, null, null);
+    Assert.assertTrue(employeePage.getEmployees().stream()
+        .anyMatch(found -> found.getIdentifier().equals(employee.getIdentifier())));
+
+    this.organizationManager.deleteEmployee(employee.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_EMPLOYEE, employee.getIdentifier());
+  }
+
   @Test
   public void shouldFindAllEmployees() throws Exception {
     final Employee firstEmployee = EmployeeFactory.createRandomEmployee();
@@ -405,6 +459,59 @@ public class TestEmployee {
             .andExpect(status().is4xxClientError());
   }
 
+  @Test
+  public void shouldFindEmployeesByIdentifiers() throws Exception {
+    final Employee employee = EmployeeFactory.createRandomEmployee();
+    this.organizationManager.createEmployee(employee);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_EMPLOYEE, employee.getIdentifier());
+
+    final List<Employee> employees = this.organizationManager.findEmployeesByIdentifiers(
+        Arrays.asList(employee.getIdentifier(), RandomStringUtils.randomAlphanumeric(32)), "none");
+    Assert.assertEquals(1, employees.size());
+    Assert.assertEquals(employee.getSurname(), employees.get(0).getSurname());
+    Assert.assertNull(employees.get(0).getContactDetails());
+
+    this.organizationManager.deleteEmployee(employee.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_EMPLOYEE, employee.getIdentifier());
+  }
+
+  @Test
+  public void shouldFindEmployeeByContact() throws Exception {
+    final Employee employee = EmployeeFactory.createRandomEmployee();
+    this.organizationManager.createEmployee(employee);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_EMPLOYEE, employee.getIdentifier());
+
+    final String localPart = RandomStringUtils.randomAlphanumeric(16);
+    final String number = RandomStringUtils.randomNumeric(10);
+
+    final ContactDetail email = new ContactDetail();
+    email.setType(ContactDetail.Type.EMAIL.name());
+    email.setGroup(ContactDetail.Group.BUSINESS.name());
+    email.setValue(localPart.toUpperCase() + "@Example.org");
+    email.setPreferenceLevel(1);
+
+    final ContactDetail phone = new ContactDetail();
+    phone.setType(ContactDetail.Type.PHONE.name());
+    phone.setGroup(ContactDetail.Group.BUSINESS.name());
+    phone.setValue("+49 (" + number.substring(0, 3) + ") " + number.substring(3));
+    phone.setPreferenceLevel(2);
+
+    this.organizationManager.setContactDetails(employee.getIdentifier(), Arrays.asList(email, phone));
+    this.eventRecorder.wait(EventConstants.OPERATION_PUT_CONTACT_DETAIL, employee.getIdentifier());
+
+    final EmployeePage byEmail =
+        this.organizationManager.findEmployeesByContact(localPart.toLowerCase() + "@example.org", null, null);
+    Assert.assertEquals(1, byEmail.getEmployees().size());
+    Assert.assertEquals(employee.getIdentifier(), byEmail.getEmployees().get(0).getIdentifier());
+
+    final EmployeePage byPhone = this.organizationManager.findEmployeesByContact("0049" + number, null, null);
+    Assert.assertEquals(1, byPhone.getEmployees().size());
+    Assert.assertEquals(employee.getIdentifier(), byPhone.getEmployees().get(0).getIdentifier());
+
+    this.organizationManager.deleteEmployee(employee.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_EMPLOYEE, employee.getIdentifier());
+  }
+
   @Test
   public void shouldNotSetContactDetailEmployeeNotFound() throws Exception {
     final ContactDetail contactDetail = new ContactDetail();
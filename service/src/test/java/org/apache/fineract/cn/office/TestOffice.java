@@ -18,6 +18,10 @@
  */
 package org.apache.fineract.cn.office;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.fineract.cn.anubis.test.v1.TenantApplicationSecurityEnvironmentTestRule;
 import org.apache.fineract.cn.api.context.AutoUserContext;
@@ -49,6 +53,7 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.restdocs.JUnitRestDocumentation;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
@@ -170,6 +175,33 @@ public class TestOffice {
     this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, office.getIdentifier());
   }
 
+  @Test
+  public void shouldRefreshCachedOfficeAfterChanges() throws Exception {
+    final Office office = OfficeFactory.createRandomOffice();
+    this.organizationManager.createOffice(office);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, office.getIdentifier());
+    Assert.assertFalse(this.organizationManager.findOfficeByIdentifier(office.getIdentifier()).getExternalReferences());
+
+    final String modifiedOfficeName = RandomStringUtils.randomAlphanumeric(32);
+    office.setName(modifiedOfficeName);
+    this.organizationManager.updateOffice(office.getIdentifier(), office);
+    this.eventRecorder.wait(EventConstants.OPERATION_PUT_OFFICE, office.getIdentifier());
+    Assert.assertEquals(modifiedOfficeName, this.organizationManager.findOfficeByIdentifier(office.getIdentifier()).getName());
+
+    final Employee employee = EmployeeFactory.createRandomEmployee();
+    employee.setAssignedOffice(office.getIdentifier());
+    this.organizationManager.createEmployee(employee);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_EMPLOYEE, employee.getIdentifier());
+    Assert.assertTrue(this.organizationManager.findOfficeByIdentifier(office.getIdentifier()).getExternalReferences());
+
+    this.organizationManager.deleteEmployee(employee.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_EMPLOYEE, employee.getIdentifier());
+    Assert.assertFalse(this.organizationManager.findOfficeByIdentifier(office.getIdentifier()).getExternalReferences());
+
+    this.organizationManager.deleteOffice(office.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, office.getIdentifier());
+  }
+
   @Test
   public void shouldUpdateOffice() throws Exception {
     final Office office = OfficeFactory.createRandomOffice();
@@ -194,6 +226,31 @@ public class TestOffice {
             .andExpect(status().is4xxClientError());
   }
 
+  @Test
+  public void shouldFindOfficeByTermAfterRename() throws Exception {
+    final Office office = OfficeFactory.createRandomOffice();
+    this.organizationManager.createOffice(office);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, office.getIdentifier());
+
+    final String modifiedOfficeName = RandomStringUtils.randomAlphanumeric(32);
+    office.setName(modifiedOfficeName);
+    this.organizationManager.updateOffice(office.getIdentifier(), office);
+    this.eventRecorder.wait(EventConstants.OPERATION_PUT_OFFICE, office.getIdentifier());
+
+    final OfficePage officePage =
+        this.organizationManager.fetchOffices(modifiedOfficeName.substring(4, 12), 0, 10, null, null);
+    Assert.assertEquals(1, officePage.getOffices().size());
+    Assert.assertEquals(office.getIdentifier(), officePage.getOffices().get(0).getIdentifier());
+
+    final OfficePage shortTermPage =
+        this.organizationManager.fetchOffices(office.getIdentifier().substring(0, 2), 0, 10, null, null);
+    Assert.assertTrue(shortTermPage.getOffices().stream()
+        .anyMatch(found -> found.getIdentifier().equals(office.getIdentifier())));
+
+    this.organizationManager.deleteOffice(office.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, office.getIdentifier());
+  }
+
   @Test
   public void shouldNotUpdateOfficeIdentifierMismatch() throws Exception {
     final Office office = OfficeFactory.createRandomOffice();
@@ -213,6 +270,52 @@ public class TestOffice {
     this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, office.getIdentifier());
   }
 
+  @Test
+  public void shouldFindOfficeAfterMissedLookup() throws Exception {
+    final Office office = OfficeFactory.createRandomOffice();
+    try {
+      this.organizationManager.findOfficeByIdentifier(office.getIdentifier());
+      Assert.fail();
+    } catch (final NotFoundException ex) {
+      // do nothing, expected
+    }
+
+    this.organizationManager.createOffice(office);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, office.getIdentifier());
+
+    final Office savedOffice = this.organizationManager.findOfficeByIdentifier(office.getIdentifier());
+    Assert.assertEquals(office.getIdentifier(), savedOffice.getIdentifier());
+
+    this.organizationManager.deleteOffice(office.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, office.getIdentifier());
+  }
+
+  @Test
+  public void shouldResolveRecreatedOffice() throws Exception {
+    final Office office = OfficeFactory.createRandomOffice();
+    this.organizationManager.createOffice(office);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, office.getIdentifier());
+    Assert.assertTrue(this.organizationManager.getDescendants(office.getIdentifier(), 0, 10, null, null).getOffices().isEmpty());
+
+    this.organizationManager.deleteOffice(office.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, office.getIdentifier());
+    this.organizationManager.createOffice(office);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, office.getIdentifier());
+
+    final Office branch = OfficeFactory.createRandomOffice();
+    this.organizationManager.addBranch(office.getIdentifier(), branch);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, branch.getIdentifier());
+
+    final OfficePage descendants = this.organizationManager.getDescendants(office.getIdentifier(), 0, 10, null, null);
+    Assert.assertEquals(1, descendants.getOffices().size());
+    Assert.assertEquals(branch.getIdentifier(), descendants.getOffices().get(0).getIdentifier());
+
+    this.organizationManager.deleteOffice(branch.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, branch.getIdentifier());
+    this.organizationManager.deleteOffice(office.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, office.getIdentifier());
+  }
+
   @Test
   public void shouldAddBranch() throws Exception {
     final Office office = OfficeFactory.createRandomOffice();
@@ -240,6 +343,111 @@ public class TestOffice {
             .andExpect(status().is4xxClientError());
   }
 
+  @Test
+  public void shouldContinueBranchesWithCursor() throws Exception {
+    final Office office = OfficeFactory.createRandomOffice();
+    this.organizationManager.createOffice(office);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, office.getIdentifier());
+
+    final List<Office> branches = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      final Office branch = OfficeFactory.createRandomOffice();
+      this.organizationManager.addBranch(office.getIdentifier(), branch);
+      this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, branch.getIdentifier());
+      branches.add(branch);
+    }
+
+    final OfficePage firstPage = this.organizationManager.getBranches(office.getIdentifier(), 0, 2, null, null);
+    Assert.assertEquals(2, firstPage.getOffices().size());
+    Assert.assertNotNull(firstPage.getNextCursor());
+
+    final OfficePage nextPage = this.organizationManager.getBranchesAfter(office.getIdentifier(), firstPage.getNextCursor(), 2);
+    Assert.assertEquals(1, nextPage.getOffices().size());
+    Assert.assertNull(nextPage.getNextCursor());
+    Assert.assertNull(nextPage.getTotalElements());
+
+    final List<String> pagedIdentifiers = new ArrayList<>();
+    firstPage.getOffices().forEach(branch -> pagedIdentifiers.add(branch.getIdentifier()));
+    nextPage.getOffices().forEach(branch -> pagedIdentifiers.add(branch.getIdentifier()));
+    final List<String> allIdentifiers = new ArrayList<>();
+    this.organizationManager.getBranches(office.getIdentifier(), 0, 10, null, null).getOffices()
+        .forEach(branch -> allIdentifiers.add(branch.getIdentifier()));
+    Assert.assertEquals(allIdentifiers, pagedIdentifiers);
+
+    for (final Office branch : branches) {
+      this.organizationManager.deleteOffice(branch.getIdentifier());
+      this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, branch.getIdentifier());
+    }
+    this.organizationManager.deleteOffice(office.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, office.getIdentifier());
+  }
+
+  @Test
+  public void shouldFindDescendantsAndAncestors() throws Exception {
+    final Office office = OfficeFactory.createRandomOffice();
+    this.organizationManager.createOffice(office);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, office.getIdentifier());
+
+    final Office branch = OfficeFactory.createRandomOffice();
+    this.organizationManager.addBranch(office.getIdentifier(), branch);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, branch.getIdentifier());
+
+    final Office subBranch = OfficeFactory.createRandomOffice();
+    this.organizationManager.addBranch(branch.getIdentifier(), subBranch);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, subBranch.getIdentifier());
+
+    final OfficePage descendants = this.organizationManager.getDescendants(office.getIdentifier(), 0, 10, null, null);
+    Assert.assertEquals(Long.valueOf(2L), descendants.getTotalElements());
+
+    final List<Office> ancestors = this.organizationManager.getAncestors(subBranch.getIdentifier());
+    Assert.assertEquals(2, ancestors.size());
+    Assert.assertEquals(office.getIdentifier(), ancestors.get(0).getIdentifier());
+    Assert.assertEquals(branch.getIdentifier(), ancestors.get(1).getIdentifier());
+
+    this.organizationManager.deleteOffice(subBranch.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, subBranch.getIdentifier());
+
+    Assert.assertEquals(Long.valueOf(1L),
+        this.organizationManager.getDescendants(office.getIdentifier(), 0, 10, null, null).getTotalElements());
+
+    this.organizationManager.deleteOffice(branch.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, branch.getIdentifier());
+    this.organizationManager.deleteOffice(office.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, office.getIdentifier());
+  }
+
+  @Test
+  public void shouldStreamOfficeTree() throws Exception {
+    final Office office = OfficeFactory.createRandomOffice();
+    this.organizationManager.createOffice(office);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, office.getIdentifier());
+
+    final Office branch = OfficeFactory.createRandomOffice();
+    this.organizationManager.addBranch(office.getIdentifier(), branch);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, branch.getIdentifier());
+
+    final Office subBranch = OfficeFactory.createRandomOffice();
+    this.organizationManager.addBranch(branch.getIdentifier(), subBranch);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, subBranch.getIdentifier());
+
+    final OfficeTree officeTree = this.organizationManager.getOfficeTree(office.getIdentifier());
+    Assert.assertEquals(office.getIdentifier(), officeTree.getIdentifier());
+    Assert.assertEquals(1, officeTree.getBranches().size());
+
+    final OfficeTree branchTree = officeTree.getBranches().get(0);
+    Assert.assertEquals(branch.getIdentifier(), branchTree.getIdentifier());
+    Assert.assertEquals(1, branchTree.getBranches().size());
+    Assert.assertEquals(subBranch.getIdentifier(), branchTree.getBranches().get(0).getIdentifier());
+    Assert.assertTrue(branchTree.getBranches().get(0).getBranches().isEmpty());
+
+    this.organizationManager.deleteOffice(subBranch.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, subBranch.getIdentifier());
+    this.organizationManager.deleteOffice(branch.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, branch.getIdentifier());
+    this.organizationManager.deleteOffice(office.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, office.getIdentifier());
+  }
+
   @Test
   public void shouldNotAddBranchParentNotFound() throws Exception {
     try {
@@ -320,6 +528,197 @@ public class TestOffice {
             .andExpect(status().isNotFound());
   }
 
+  @Test
+  public void shouldFindOfficesByAddress() throws Exception {
+    final Office office = OfficeFactory.createRandomOffice();
+    final Address address = AddressFactory.createRandomAddress();
+    office.setAddress(address);
+    this.organizationManager.createOffice(office);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, office.getIdentifier());
+
+    final OfficePage officePage = this.organizationManager.fetchOfficesByAddress(address.getCountryCode(),
+        address.getCity(), null, 0, 10, null, null);
+    Assert.assertEquals(1, officePage.getOffices().size());
+    Assert.assertEquals(office.getIdentifier(), officePage.getOffices().get(0).getIdentifier());
+    Assert.assertEquals(address.getCity(), officePage.getOffices().get(0).getAddress().getCity());
+
+    final OfficePage otherRegionPage = this.organizationManager.fetchOfficesByAddress(address.getCountryCode(),
+        address.getCity(), RandomStringUtils.randomAlphanumeric(16), 0, 10, null, null);
+    Assert.assertTrue(otherRegionPage.getOffices().isEmpty());
+
+    this.organizationManager.deleteOffice(office.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, office.getIdentifier());
+  }
+
+  @Test
+  public void shouldFindOfficesByIdentifiers() throws Exception {
+    final Office firstOffice = OfficeFactory.createRandomOffice();
+    this.organizationManager.createOffice(firstOffice);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, firstOffice.getIdentifier());
+
+    final Office secondOffice = OfficeFactory.createRandomOffice();
+    this.organizationManager.createOffice(secondOffice);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, secondOffice.getIdentifier());
+
+    final List<Office> offices = this.organizationManager.findOfficesByIdentifiers(Arrays.asList(
+        secondOffice.getIdentifier(), RandomStringUtils.randomAlphanumeric(32), firstOffice.getIdentifier()));
+    Assert.assertEquals(2, offices.size());
+    Assert.assertEquals(secondOffice.getIdentifier(), offices.get(0).getIdentifier());
+    Assert.assertEquals(firstOffice.getIdentifier(), offices.get(1).getIdentifier());
+
+    final List<Office> officesInOtherCase = this.organizationManager.findOfficesByIdentifiers(
+        Collections.singletonList(firstOffice.getIdentifier().toUpperCase()));
+    Assert.assertEquals(1, officesInOtherCase.size());
+    Assert.assertEquals(firstOffice.getIdentifier(), officesInOtherCase.get(0).getIdentifier());
+
+    try {
+      this.organizationManager.findOfficesByIdentifiers(Collections.emptyList());
+      Assert.fail();
+    } catch (final BadRequestException ex) {
+      // do nothing, expected
+    }
+
+    try {
+      this.organizationManager.findOfficesByIdentifiers(Collections.singletonList(null));
+      Assert.fail();
+    } catch (final BadRequestException ex) {
+      // do nothing, expected
+    }
+
+    this.organizationManager.deleteOffice(firstOffice.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, firstOffice.getIdentifier());
+    this.organizationManager.deleteOffice(secondOffice.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, secondOffice.getIdentifier());
+  }
+
+  @Test(expected = BadRequestException.class)
+  public void shouldNotCreateOfficeWithReservedIdentifier() throws Exception {
+    final Office office = OfficeFactory.createRandomOffice();
+    office.setIdentifier("batch-get");
+    this.organizationManager.createOffice(office);
+  }
+
+  @Test
+  public void shouldRevalidateOfficeWithEntityTag() throws Exception {
+    final Office office = OfficeFactory.createRandomOffice();
+    this.organizationManager.createOffice(office);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, office.getIdentifier());
+
+    final ResponseEntity<Office> response = this.organizationManager.findOfficeByIdentifier(office.getIdentifier(), null);
+    final String entityTag = response.getHeaders().getETag();
+    Assert.assertNotNull(entityTag);
+
+    try {
+      this.organizationManager.findOfficeByIdentifier(office.getIdentifier(), entityTag);
+      Assert.fail();
+    } catch (final NotModifiedException ex) {
+      // do nothing, expected
+    }
+
+    final EntityTagCache<String, Office> officeCache = new EntityTagCache<>(10);
+    Assert.assertEquals(office.getName(), officeCache.get(office.getIdentifier(), this.organizationManager::findOfficeByIdentifier).getName());
+
+    office.setName(RandomStringUtils.randomAlphanumeric(32));
+    this.organizationManager.updateOffice(office.getIdentifier(), office);
+    this.eventRecorder.wait(EventConstants.OPERATION_PUT_OFFICE, office.getIdentifier());
+
+    final ResponseEntity<Office> changedResponse =
+        this.organizationManager.findOfficeByIdentifier(office.getIdentifier(), entityTag);
+    Assert.assertNotEquals(entityTag, changedResponse.getHeaders().getETag());
+    Assert.assertEquals(office.getName(), changedResponse.getBody().getName());
+    Assert.assertEquals(office.getName(), officeCache.get(office.getIdentifier(), this.organizationManager::findOfficeByIdentifier).getName());
+
+    this.organizationManager.deleteOffice(office.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, office.getIdentifier());
+  }
+
+  @Test
+  public void shouldChangeEntityTagWhenBranchOrEmployeeIsAdded() throws Exception {
+    final Office office = OfficeFactory.createRandomOffice();
+    this.organizationManager.createOffice(office);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, office.getIdentifier());
+
+    final String entityTag = this.organizationManager.findOfficeByIdentifier(office.getIdentifier(), null)
+        .getHeaders().getETag();
+    Assert.assertFalse(this.organizationManager.findOfficeByIdentifier(office.getIdentifier()).getExternalReferences());
+
+    final Office branch = OfficeFactory.createRandomOffice();
+    this.organizationManager.addBranch(office.getIdentifier(), branch);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, branch.getIdentifier());
+
+    final ResponseEntity<Office> branchedResponse =
+        this.organizationManager.findOfficeByIdentifier(office.getIdentifier(), entityTag);
+    final String branchedEntityTag = branchedResponse.getHeaders().getETag();
+    Assert.assertNotEquals(entityTag, branchedEntityTag);
+    Assert.assertTrue(branchedResponse.getBody().getExternalReferences());
+
+    final Employee employee = EmployeeFactory.createRandomEmployee();
+    employee.setAssignedOffice(office.getIdentifier());
+    this.organizationManager.createEmployee(employee);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_EMPLOYEE, employee.getIdentifier());
+
+    final ResponseEntity<Office> staffedResponse =
+        this.organizationManager.findOfficeByIdentifier(office.getIdentifier(), branchedEntityTag);
+    Assert.assertNotEquals(branchedEntityTag, staffedResponse.getHeaders().getETag());
+
+    this.organizationManager.deleteEmployee(employee.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_EMPLOYEE, employee.getIdentifier());
+    this.organizationManager.deleteOffice(branch.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, branch.getIdentifier());
+    this.organizationManager.deleteOffice(office.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, office.getIdentifier());
+  }
+
+  @Test
+  public void shouldOnlyExpandRequestedOfficeFields() throws Exception {
+    final Office office = OfficeFactory.createRandomOffice();
+    office.setAddress(AddressFactory.createRandomAddress());
+    this.organizationManager.createOffice(office);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, office.getIdentifier());
+
+    final OfficePage plainPage =
+        this.organizationManager.fetchOffices(office.getIdentifier(), 0, 10, null, null, Boolean.FALSE, "none");
+    Assert.assertEquals(1, plainPage.getOffices().size());
+    Assert.assertEquals(office.getName(), plainPage.getOffices().get(0).getName());
+    Assert.assertNull(plainPage.getOffices().get(0).getAddress());
+    Assert.assertNull(plainPage.getOffices().get(0).getExternalReferences());
+
+    final OfficePage addressPage =
+        this.organizationManager.fetchOffices(office.getIdentifier(), 0, 10, null, null, Boolean.FALSE, "address");
+    Assert.assertEquals(office.getAddress().getCity(), addressPage.getOffices().get(0).getAddress().getCity());
+    Assert.assertNull(addressPage.getOffices().get(0).getExternalReferences());
+
+    try {
+      this.organizationManager.fetchOffices(office.getIdentifier(), 0, 10, null, null, Boolean.FALSE, "contactDetails");
+      Assert.fail();
+    } catch (final BadRequestException ex) {
+      // do nothing, expected
+    }
+
+    this.organizationManager.deleteOffice(office.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, office.getIdentifier());
+  }
+
+  @Test
+  public void shouldReplaceAddressOfOffice() throws Exception {
+    final Office office = OfficeFactory.createRandomOffice();
+    office.setAddress(AddressFactory.createRandomAddress());
+    this.organizationManager.createOffice(office);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, office.getIdentifier());
+    Assert.assertNotNull(this.organizationManager.getAddressOfOffice(office.getIdentifier()));
+
+    final Address address = AddressFactory.createRandomAddress();
+    this.organizationManager.setAddressForOffice(office.getIdentifier(), address);
+    this.eventRecorder.wait(EventConstants.OPERATION_PUT_ADDRESS, office.getIdentifier());
+
+    final Address savedAddress = this.organizationManager.getAddressOfOffice(office.getIdentifier());
+    Assert.assertEquals(address.getStreet(), savedAddress.getStreet());
+    Assert.assertEquals(address.getCity(), savedAddress.getCity());
+
+    this.organizationManager.deleteOffice(office.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, office.getIdentifier());
+  }
+
   @Test
   public void shouldDeleteAddressOfOffice() throws Exception {
     final Office office = OfficeFactory.createRandomOffice();
@@ -409,6 +808,49 @@ public class TestOffice {
     this.organizationManager.deleteOffice(office.getIdentifier());
   }
 
+  @Test
+  public void shouldDeleteOfficeOnceBranchesAndEmployeesAreGone() throws Exception {
+    final Office office = OfficeFactory.createRandomOffice();
+    this.organizationManager.createOffice(office);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, office.getIdentifier());
+
+    final Office branch = OfficeFactory.createRandomOffice();
+    this.organizationManager.addBranch(office.getIdentifier(), branch);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, branch.getIdentifier());
+
+    final Employee employee = EmployeeFactory.createRandomEmployee();
+    employee.setAssignedOffice(office.getIdentifier());
+    this.organizationManager.createEmployee(employee);
+    this.eventRecorder.wait(EventConstants.OPERATION_POST_EMPLOYEE, employee.getIdentifier());
+
+    try {
+      this.organizationManager.deleteOffice(office.getIdentifier());
+      Assert.fail();
+    } catch (final ChildrenExistException ex) {
+      // do nothing, expected
+    }
+
+    this.organizationManager.deleteOffice(branch.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, branch.getIdentifier());
+
+    try {
+      this.organizationManager.deleteOffice(office.getIdentifier());
+      Assert.fail();
+    } catch (final ChildrenExistException ex) {
+      // do nothing, expected
+    }
+
+    this.organizationManager.deleteEmployee(employee.getIdentifier());
+    this.eventRecorder.wait(EventConstants.OPERATION_DELETE_EMPLOYEE, employee.getIdentifier());
+
+    this.organizationManager.deleteOffice(office.getIdentifier());
+    Assert.assertTrue(this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, office.getIdentifier()));
+
+    this.mockMvc.perform(delete(path + "/offices/" + office.getIdentifier())
+            .contentType(MediaType.ALL_VALUE))
+            .andExpect(status().isNotFound());
+  }
+
   @Test(expected = ChildrenExistException.class)
   public void shouldNotDeleteOfficeWithActiveExternalReference() throws Exception {
     final Office randomOffice = OfficeFactory.createRandomOffice();
@@ -445,6 +887,26 @@ public class TestOffice {
     Assert.assertTrue(this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, randomOffice.getIdentifier()));
   }
 
+  @Test
+  public void shouldMaintainExternalReferencesFlagForBranches() throws Exception {
+    final Office office = OfficeFactory.createRandomOffice();
+    this.organizationManager.createOffice(office);
+    Assert.assertTrue(this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, office.getIdentifier()));
+    Assert.assertFalse(this.organizationManager.findOfficeByIdentifier(office.getIdentifier()).getExternalReferences());
+
+    final Office branch = OfficeFactory.createRandomOffice();
+    this.organizationManager.addBranch(office.getIdentifier(), branch);
+    Assert.assertTrue(this.eventRecorder.wait(EventConstants.OPERATION_POST_OFFICE, branch.getIdentifier()));
+    Assert.assertTrue(this.organizationManager.findOfficeByIdentifier(office.getIdentifier()).getExternalReferences());
+
+    this.organizationManager.deleteOffice(branch.getIdentifier());
+    Assert.assertTrue(this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, branch.getIdentifier()));
+    Assert.assertFalse(this.organizationManager.findOfficeByIdentifier(office.getIdentifier()).getExternalReferences());
+
+    this.organizationManager.deleteOffice(office.getIdentifier());
+    Assert.assertTrue(this.eventRecorder.wait(EventConstants.OPERATION_DELETE_OFFICE, office.getIdentifier()));
+  }
+
   @Test
   public void shouldIndicateOfficeHasExternalReferences() throws Exception {
     final Office randomOffice = OfficeFactory.createRandomOffice();
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.apache.fineract.cn.api.util.UserContextHolder;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class TestReplicaRoutingDataSource {
+
+  private static final String TENANT_CATALOG = "tenant_catalog";
+
+  private DataSource primaryDataSource;
+  private DataSource replicaDataSource;
+  private Connection primaryConnection;
+  private Connection replicaConnection;
+  private Connection probeConnection;
+  private ResultSet slaveStatus;
+  private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+  public TestReplicaRoutingDataSource() {
+    super();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    this.primaryDataSource = Mockito.mock(DataSource.class);
+    this.replicaDataSource = Mockito.mock(DataSource.class);
+    this.primaryConnection = Mockito.mock(Connection.class);
+    this.replicaConnection = Mockito.mock(Connection.class);
+    this.slaveStatus = Mockito.mock(ResultSet.class);
+
+    this.probeConnection = Mockito.mock(Connection.class);
+    final Statement probeStatement = Mockito.mock(Statement.class);
+    Mockito.when(this.primaryDataSource.getConnection()).thenReturn(this.primaryConnection);
+    Mockito.when(this.primaryConnection.getCatalog()).thenReturn(TENANT_CATALOG);
+    Mockito.when(this.replicaDataSource.getConnection()).thenReturn(this.probeConnection, this.replicaConnection);
+    Mockito.when(this.probeConnection.createStatement()).thenReturn(probeStatement);
+    Mockito.when(probeStatement.executeQuery("SHOW SLAVE STATUS")).thenReturn(this.slaveStatus);
+
+    this.replicaRoutingDataSource = new ReplicaRoutingDataSource(LoggerFactory.getLogger(this.getClass()),
+        this.primaryDataSource, this.replicaDataSource, 5000L, 10000L, 5000L);
+
+    TenantContextHolder.setIdentifier("replica-tenant");
+  }
+
+  @After
+  public void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+    TransactionSynchronizationManager.setActualTransactionActive(false);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    UserContextHolder.clear();
+    TenantContextHolder.clear();
+  }
+
+  @Test
+  public void shouldReadFromReplica() throws Exception {
+    Mockito.when(this.slaveStatus.next()).thenReturn(true);
+    Mockito.when(this.slaveStatus.getLong("Seconds_Behind_Master")).thenReturn(0L);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    Assert.assertSame(this.replicaConnection, this.replicaRoutingDataSource.getConnection());
+    Mockito.verify(this.replicaConnection).setCatalog(TENANT_CATALOG);
+  }
+
+  @Test
+  public void shouldWriteToPrimary() throws Exception {
+    Assert.assertSame(this.primaryConnection, this.replicaRoutingDataSource.getConnection());
+    Mockito.verifyZeroInteractions(this.replicaDataSource);
+  }
+
+  @Test
+  public void shouldReadFromPrimaryWhileReplicaLags() throws Exception {
+    Mockito.when(this.slaveStatus.next()).thenReturn(true);
+    Mockito.when(this.slaveStatus.getLong("Seconds_Behind_Master")).thenReturn(60L);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    Assert.assertSame(this.primaryConnection, this.replicaRoutingDataSource.getConnection());
+    Mockito.verify(this.replicaDataSource, Mockito.times(1)).getConnection();
+  }
+
+  @Test
+  public void shouldReadFromPrimaryWhenReplicaIsNotAvailable() throws Exception {
+    Mockito.when(this.slaveStatus.next()).thenReturn(false);
+    Mockito.when(this.replicaDataSource.getConnection())
+        .thenReturn(this.probeConnection)
+        .thenThrow(new SQLException("Replica down."));
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+    Assert.assertSame(this.primaryConnection, this.replicaRoutingDataSource.getConnection());
+  }
+
+  @Test
+  public void shouldReadOwnWritesFromPrimary() throws Exception {
+    Mockito.when(this.slaveStatus.next()).thenReturn(false);
+    UserContextHolder.setAccessToken("replica-user", "token");
+    TransactionSynchronizationManager.initSynchronization();
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+
+    Assert.assertSame(this.primaryConnection, this.replicaRoutingDataSource.getConnection());
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    Assert.assertSame(this.primaryConnection, this.replicaRoutingDataSource.getConnection());
+    Mockito.verifyZeroInteractions(this.replicaDataSource);
+  }
+
+  @Test
+  public void shouldNotCountReadsOutsideOfTransactionsAsWrites() throws Exception {
+    Mockito.when(this.slaveStatus.next()).thenReturn(false);
+    UserContextHolder.setAccessToken("replica-user", "token");
+
+    Assert.assertSame(this.primaryConnection, this.replicaRoutingDataSource.getConnection());
+
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    Assert.assertSame(this.replicaConnection, this.replicaRoutingDataSource.getConnection());
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.office.internal.service;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestLookupMemo {
+
+  private static final String KEY = "office:memo-tenant:memo-office";
+
+  public TestLookupMemo() {
+    super();
+  }
+
+  @After
+  public void tearDown() {
+    LookupMemo.end();
+  }
+
+  @Test
+  public void shouldResolveOncePerRequest() {
+    final AtomicInteger resolutions = new AtomicInteger();
+    final Supplier<Optional<Long>> resolver = () -> {
+      resolutions.incrementAndGet();
+      return Optional.of(42L);
+    };
+
+    LookupMemo.begin();
+    Assert.assertEquals(Optional.of(42L), LookupMemo.resolve(KEY, resolver));
+    Assert.assertEquals(Optional.of(42L), LookupMemo.resolve(KEY, resolver));
+    LookupMemo.countDatabaseHit();
+    final LookupMemo lookupMemo = LookupMemo.end().get();
+
+    Assert.assertEquals(1, resolutions.get());
+    Assert.assertEquals(1, lookupMemo.getMemoHits());
+    Assert.assertEquals(1, lookupMemo.getDatabaseHits());
+    Assert.assertEquals(2, lookupMemo.getLookups());
+  }
+
+  @Test
+  public void shouldRememberMissesForTheRequest() {
+    final AtomicInteger resolutions = new AtomicInteger();
+    final Supplier<Optional<Long>> resolver = () -> {
+      resolutions.incrementAndGet();
+      return Optional.empty();
+    };
+
+    LookupMemo.begin();
+    Assert.assertFalse(LookupMemo.resolve(KEY, resolver).isPresent());
+    Assert.assertFalse(LookupMemo.resolve(KEY, resolver).isPresent());
+
+    Assert.assertEquals(1, resolutions.get());
+  }
+
+  @Test
+  public void shouldNotShareLookupsBetweenRequests() {
+    final AtomicInteger resolutions = new AtomicInteger();
+    final Supplier<Optional<Long>> resolver = () -> Optional.of((long) resolutions.incrementAndGet());
+
+    LookupMemo.begin();
+    Assert.assertEquals(Optional.of(1L), LookupMemo.resolve(KEY, resolver));
+    LookupMemo.end();
+
+    LookupMemo.begin();
+    Assert.assertEquals(Optional.of(2L), LookupMemo.resolve(KEY, resolver));
+    Assert.assertEquals(0, LookupMemo.end().get().getMemoHits());
+  }
+
+  @Test
+  public void shouldResolveEveryTimeOutsideOfRequests() throws Exception {
+    final AtomicInteger resolutions = new AtomicInteger();
+    final Supplier<Optional<Long>> resolver = () -> Optional.of((long) resolutions.incrementAndGet());
+
+    Assert.assertFalse(LookupMemo.end().isPresent());
+    Assert.assertEquals(Optional.of(1L), LookupMemo.resolve(KEY, resolver));
+    Assert.assertEquals(Optional.of(2L), LookupMemo.resolve(KEY, resolver));
+
+    LookupMemo.begin();
+    Assert.assertEquals(Optional.of(3L), LookupMemo.resolve(KEY, resolver));
+    final Thread commandThread = new Thread(() -> LookupMemo.resolve(KEY, resolver));
+    commandThread.start();
+    commandThread.join();
+    Assert.assertEquals(4, resolutions.get());
+  }
+}